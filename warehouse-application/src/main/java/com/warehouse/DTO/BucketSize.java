@@ -0,0 +1,7 @@
+package com.warehouse.DTO;
+
+public enum BucketSize {
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,7 @@
+package com.warehouse.DTO;
+
+public enum IngestStatus {
+    PENDING,
+    COMMITTED,
+    FAILED
+}
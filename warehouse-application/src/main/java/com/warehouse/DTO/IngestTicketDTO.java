@@ -0,0 +1,23 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+@Data
+public class IngestTicketDTO {
+    private String trackingId;
+
+    private IngestStatus status;
+
+    // set once the roll is committed
+    private MetalRollDTO roll;
+
+    // set when the batch of the roll failed
+    private String error;
+
+    public IngestTicketDTO(String trackingId, IngestStatus status, MetalRollDTO roll, String error) {
+        this.trackingId = trackingId;
+        this.status = status;
+        this.roll = roll;
+        this.error = error;
+    }
+}
@@ -0,0 +1,18 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class InventoryCheckDTO {
+    private long checkedDays;
+
+    private long mismatchedDays;
+
+    private LocalDate firstMismatch;
+
+    public boolean isConsistent() {
+        return mismatchedDays == 0;
+    }
+}
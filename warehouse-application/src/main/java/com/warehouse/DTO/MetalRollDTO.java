@@ -25,4 +25,12 @@ public class MetalRollDTO {
         dateAdded = mr.getDateAdded();
         dateOfDeletion = mr.getDateOfDeletion();
     }
+
+    public MetalRollDTO(int id, double length, double weight, LocalDate dateAdded, LocalDate dateOfDeletion) {
+        this.id = id;
+        this.length = length;
+        this.weight = weight;
+        this.dateAdded = dateAdded;
+        this.dateOfDeletion = dateOfDeletion;
+    }
 }
@@ -0,0 +1,15 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+@Data
+public class NewRollDTO {
+    private Double length;
+
+    private Double weight;
+
+    public NewRollDTO(Double length, Double weight) {
+        this.length = length;
+        this.weight = weight;
+    }
+}
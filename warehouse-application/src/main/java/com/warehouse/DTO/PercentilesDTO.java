@@ -0,0 +1,21 @@
+package com.warehouse.DTO;
+
+import com.warehouse.statistics.LogHistogram;
+import lombok.Data;
+
+@Data
+public class PercentilesDTO {
+    private Double p50;
+
+    private Double p90;
+
+    private Double p99;
+
+    public PercentilesDTO() {}
+
+    public PercentilesDTO(LogHistogram histogram) {
+        this.p50 = histogram.quantile(0.5);
+        this.p90 = histogram.quantile(0.9);
+        this.p99 = histogram.quantile(0.99);
+    }
+}
@@ -0,0 +1,7 @@
+package com.warehouse.DTO;
+
+public enum RemovalOutcome {
+    REMOVED,
+    NOT_FOUND,
+    ALREADY_REMOVED
+}
@@ -0,0 +1,15 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+@Data
+public class RemovalResultDTO {
+    private int id;
+
+    private RemovalOutcome outcome;
+
+    public RemovalResultDTO(int id, RemovalOutcome outcome) {
+        this.id = id;
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,27 @@
+package com.warehouse.DTO;
+
+import com.warehouse.entities.RollChange;
+import com.warehouse.entities.RollChangeType;
+import lombok.Data;
+
+@Data
+public class RollChangeDTO {
+    private long seq;
+
+    private RollChangeType type;
+
+    private MetalRollDTO roll;
+
+    public RollChangeDTO(RollChange change) {
+        seq = change.getSeq();
+        type = change.getType();
+        roll = new MetalRollDTO(change.getRollId(), change.getLength(), change.getWeight(),
+                change.getDateAdded(), change.getDateOfDeletion());
+    }
+
+    public RollChangeDTO(long seq, RollChangeType type, MetalRollDTO roll) {
+        this.seq = seq;
+        this.type = type;
+        this.roll = roll;
+    }
+}
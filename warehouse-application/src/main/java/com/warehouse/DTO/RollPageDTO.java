@@ -0,0 +1,17 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RollPageDTO {
+    private List<MetalRollDTO> items;
+
+    private Integer nextCursor;
+
+    public RollPageDTO(List<MetalRollDTO> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+/**
+ * Approximate percentiles over the rolls that period statistics cover. Every value is within
+ * {@code relativeError} of the exact percentile; storage days only count removed rolls.
+ */
+@Data
+public class RollPercentilesDTO {
+    private long rollCount;
+
+    private long removedCount;
+
+    private PercentilesDTO length;
+
+    private PercentilesDTO weight;
+
+    private PercentilesDTO storageDays;
+
+    private double relativeError;
+}
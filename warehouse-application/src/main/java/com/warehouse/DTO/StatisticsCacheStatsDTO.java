@@ -0,0 +1,18 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+@Data
+public class StatisticsCacheStatsDTO {
+    private boolean enabled;
+
+    private int size;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long invalidations;
+}
@@ -0,0 +1,30 @@
+package com.warehouse.DTO;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * One bucket of a stock series: the rolls added and removed during it, and the stock at the
+ * end of its last day. {@code bucket} is the first day of the bucket inside the period.
+ */
+@Data
+public class StockBucketDTO {
+    private LocalDate bucket;
+
+    private long activeCount;
+
+    private double totalWeight;
+
+    private long added;
+
+    private long removed;
+
+    public StockBucketDTO(LocalDate bucket, long activeCount, double totalWeight, long added, long removed) {
+        this.bucket = bucket;
+        this.activeCount = activeCount;
+        this.totalWeight = totalWeight;
+        this.added = added;
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,25 @@
+package com.warehouse.archive;
+
+/**
+ * Layout of a roll dump file. A 16-byte header (magic, format version, number of rolls) is
+ * followed by one fixed-width record per roll: id, length, weight, day added and day of
+ * removal, the days as epoch days and {@link #IN_STOCK} for a roll still in stock. All values
+ * are little-endian. Fixed-width records let a reader check that the file is complete from
+ * its size and map it without parsing.
+ */
+final class RollArchive {
+
+    static final int MAGIC = 0x4c52574d; // "MWRL"
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 16;
+
+    static final int COUNT_OFFSET = 8;
+
+    static final int RECORD_BYTES = 4 + 8 + 8 + 4 + 4;
+
+    static final int IN_STOCK = Integer.MIN_VALUE;
+
+    private RollArchive() {}
+}
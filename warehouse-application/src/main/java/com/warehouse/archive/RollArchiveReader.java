@@ -0,0 +1,80 @@
+package com.warehouse.archive;
+
+import com.warehouse.repositories.RollRowHandler;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Reads a dump file written by {@link RollArchiveWriter} through memory mappings of up to
+ * {@code 1 GiB}, so the records are read from the page cache without copying them to the heap.
+ * The header and the size of the file are checked on opening.
+ */
+public class RollArchiveReader implements AutoCloseable {
+
+    // whole records only, so none spans two mappings
+    private static final long WINDOW_BYTES = (1L << 30) / RollArchive.RECORD_BYTES * RollArchive.RECORD_BYTES;
+
+    private final FileChannel channel;
+
+    private final long count;
+
+    public RollArchiveReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < RollArchive.HEADER_BYTES) {
+                throw new IOException("Not a roll dump: " + file);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, RollArchive.HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != RollArchive.MAGIC) {
+                throw new IOException("Not a roll dump: " + file);
+            }
+            int version = header.getInt();
+            if (version != RollArchive.VERSION) {
+                throw new IOException("Unsupported roll dump version " + version + ": " + file);
+            }
+            count = header.getLong();
+            if (size != RollArchive.HEADER_BYTES + count * RollArchive.RECORD_BYTES) {
+                throw new IOException("Roll dump is incomplete, " + size + " bytes for " + count + " rolls: " + file);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /** Passes every roll of the file to the handler in file order. */
+    public void forEach(RollRowHandler handler) throws IOException {
+        long end = RollArchive.HEADER_BYTES + count * RollArchive.RECORD_BYTES;
+        for (long position = RollArchive.HEADER_BYTES; position < end; position += WINDOW_BYTES) {
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(WINDOW_BYTES, end - position));
+            window.order(ByteOrder.LITTLE_ENDIAN);
+            while (window.hasRemaining()) {
+                int id = window.getInt();
+                double length = window.getDouble();
+                double weight = window.getDouble();
+                int added = window.getInt();
+                int removed = window.getInt();
+                handler.accept(id, length, weight, LocalDate.ofEpochDay(added),
+                        removed == RollArchive.IN_STOCK ? null : LocalDate.ofEpochDay(removed));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
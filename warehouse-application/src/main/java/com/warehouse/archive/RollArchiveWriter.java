@@ -0,0 +1,84 @@
+package com.warehouse.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Writes rolls to a dump file through a fixed direct buffer, so memory use does not depend on
+ * the number of rolls. The number of rolls is written into the header by {@link #finish()};
+ * until then the header holds none, and the file of an export that failed halfway is rejected
+ * by {@link RollArchiveReader}. Not thread-safe.
+ */
+public class RollArchiveWriter implements AutoCloseable {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final FileChannel channel;
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+    private long count;
+
+    public RollArchiveWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(RollArchive.MAGIC).putInt(RollArchive.VERSION).putLong(0);
+    }
+
+    /**
+     * Matches {@link com.warehouse.repositories.RollRowHandler}, so rows can be written as they
+     * are read. Throws {@link UncheckedIOException} when the buffer cannot be written out.
+     */
+    public void write(int id, double length, double weight, LocalDate dateAdded, LocalDate dateOfDeletion) {
+        if (buffer.remaining() < RollArchive.RECORD_BYTES) {
+            flush();
+        }
+        buffer.putInt(id)
+                .putDouble(length)
+                .putDouble(weight)
+                .putInt(Math.toIntExact(dateAdded.toEpochDay()))
+                .putInt(dateOfDeletion == null ? RollArchive.IN_STOCK : Math.toIntExact(dateOfDeletion.toEpochDay()));
+        count++;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    /** Writes out the buffered rolls and their number, which makes the file readable. */
+    public void finish() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        ByteBuffer header = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(0, count);
+        while (header.hasRemaining()) {
+            channel.write(header, RollArchive.COUNT_OFFSET + header.position());
+        }
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,234 @@
+package com.warehouse.changes;
+
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.entities.RollChangeType;
+import com.warehouse.repositories.RollChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Log of roll additions and removals for consumers that keep their own copy of the rolls.
+ * Changes are appended in the transaction of the write, and readers follow the log by its
+ * sequence numbers instead of reloading the rolls. Waiting readers are served by one thread:
+ * it reads the log after each local commit, and every {@code warehouse.changes.poll-interval}
+ * for changes committed by other instances. Readers at the same position share one query.
+ */
+@Component
+public class RollChangeFeed implements DisposableBean {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(RollChangeFeed.class);
+
+    private final RollChangeRepository repository;
+
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "roll-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+    @Autowired
+    public RollChangeFeed(RollChangeRepository repository,
+                          @Value("${warehouse.changes.poll-interval:1s}") Duration pollInterval) {
+        this.repository = repository;
+        if (!pollInterval.isZero() && !pollInterval.isNegative()) {
+            long millis = pollInterval.toMillis();
+            dispatcher.scheduleWithFixedDelay(this::dispatch, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void rollsAdded(Collection<Integer> ids) {
+        append(RollChangeType.ADDED, ids);
+    }
+
+    public void rollsRemoved(Collection<Integer> ids) {
+        append(RollChangeType.REMOVED, ids);
+    }
+
+    /** Sequence number of the last committed change, or 0 when the log is empty. */
+    public long lastSeq() {
+        return repository.findLastSeq();
+    }
+
+    /** Up to {@code limit} changes with a sequence number above {@code since}, in order. */
+    public List<RollChangeDTO> changesAfter(long since, int limit) {
+        return repository.findBySeqGreaterThanOrderBySeq(since, Limit.of(limit)).stream()
+                .map(RollChangeDTO::new)
+                .toList();
+    }
+
+    /**
+     * Passes the changes after {@code since} to the listener in batches of at most
+     * {@code batchSize}, in order, and then every later one, until the subscription is
+     * cancelled. The listener runs on the feed's thread, shared by every subscriber, and must
+     * not block; a listener that hands the changes on can {@link Subscription#pause() pause}
+     * the subscription while its consumer catches up. If it throws, the subscription is
+     * cancelled.
+     */
+    public Subscription subscribe(long since, int batchSize, Consumer<List<RollChangeDTO>> listener) {
+        Subscription subscription = new Subscription(since, batchSize, listener, false);
+        subscriptions.add(subscription);
+        wake();
+        return subscription;
+    }
+
+    /**
+     * Completes with up to {@code limit} changes after {@code since} as soon as there are any,
+     * or with an empty list when none are committed within the timeout. Cancelling the future
+     * stops the wait.
+     */
+    public CompletableFuture<List<RollChangeDTO>> nextChanges(long since, int limit, Duration timeout) {
+        CompletableFuture<List<RollChangeDTO>> result = new CompletableFuture<>();
+        Subscription subscription = new Subscription(since, limit, result::complete, true);
+        subscriptions.add(subscription);
+        // queued first, so the log is read at least once before a short timeout expires
+        wake();
+        ScheduledFuture<?> timer = dispatcher.schedule(() -> result.complete(List.of()),
+                timeout.toMillis(), TimeUnit.MILLISECONDS);
+        result.whenComplete((changes, e) -> {
+            subscription.cancel();
+            timer.cancel(false);
+        });
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        dispatcher.shutdownNow();
+    }
+
+    private void append(RollChangeType type, Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        repository.appendSnapshots(type, ids);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wake();
+                }
+            });
+        } else {
+            wake();
+        }
+    }
+
+    private void wake() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Map<Long, List<RollChangeDTO>> reads = new HashMap<>();
+        try {
+            for (Subscription subscription : subscriptions) {
+                subscription.catchUp(reads);
+            }
+        } catch (RuntimeException e) {
+            // retried on the next commit or poll
+            log.warn("Could not read the roll change log", e);
+        }
+    }
+
+    public final class Subscription {
+
+        private final int batchSize;
+
+        private final Consumer<List<RollChangeDTO>> listener;
+
+        private final boolean once;
+
+        private long position;
+
+        private volatile boolean cancelled;
+
+        private volatile boolean paused;
+
+        private Subscription(long since, int batchSize, Consumer<List<RollChangeDTO>> listener, boolean once) {
+            this.position = since;
+            this.batchSize = batchSize;
+            this.listener = listener;
+            this.once = once;
+        }
+
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        /** Holds back further changes until {@link #resume()}; the batch being delivered still arrives. */
+        public void pause() {
+            paused = true;
+        }
+
+        public void resume() {
+            paused = false;
+            wake();
+        }
+
+        // Delivers everything after the position; reads is the log after each position, per dispatch.
+        private void catchUp(Map<Long, List<RollChangeDTO>> reads) {
+            while (!cancelled && !paused) {
+                List<RollChangeDTO> read = reads.computeIfAbsent(position, p -> changesAfter(p, MAX_BATCH_SIZE));
+                if (read.isEmpty()) {
+                    return;
+                }
+                List<RollChangeDTO> batch = read.size() > batchSize ? read.subList(0, batchSize) : read;
+                try {
+                    listener.accept(batch);
+                } catch (RuntimeException e) {
+                    cancel();
+                    return;
+                }
+                position = batch.get(batch.size() - 1).getSeq();
+                if (once) {
+                    cancel();
+                    return;
+                }
+                if (batch.size() == read.size() && read.size() < MAX_BATCH_SIZE) {
+                    // nothing more was committed when the log was read
+                    return;
+                }
+            }
+        }
+    }
+}
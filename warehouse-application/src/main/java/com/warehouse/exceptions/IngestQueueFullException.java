@@ -0,0 +1,7 @@
+package com.warehouse.exceptions;
+
+public class IngestQueueFullException extends RuntimeException {
+    public IngestQueueFullException(String message) {
+        super(message);
+    }
+}
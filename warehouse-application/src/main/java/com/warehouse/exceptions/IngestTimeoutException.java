@@ -0,0 +1,7 @@
+package com.warehouse.exceptions;
+
+public class IngestTimeoutException extends RuntimeException {
+    public IngestTimeoutException(String message) {
+        super(message);
+    }
+}
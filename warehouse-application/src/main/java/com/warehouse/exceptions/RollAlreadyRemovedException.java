@@ -0,0 +1,7 @@
+package com.warehouse.exceptions;
+
+public class RollAlreadyRemovedException extends RuntimeException {
+    public RollAlreadyRemovedException(String message) {
+        super(message);
+    }
+}
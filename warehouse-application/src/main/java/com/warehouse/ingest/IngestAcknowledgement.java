@@ -0,0 +1,9 @@
+package com.warehouse.ingest;
+
+/** When a queued addition is answered. */
+public enum IngestAcknowledgement {
+    /** After the batch with the roll commits; the answer carries the saved roll. */
+    COMMITTED,
+    /** Right after the roll is queued, with a tracking id; the roll is lost if the process dies first. */
+    ACCEPTED
+}
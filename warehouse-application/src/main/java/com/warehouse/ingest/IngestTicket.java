@@ -0,0 +1,84 @@
+package com.warehouse.ingest;
+
+import com.warehouse.DTO.IngestStatus;
+import com.warehouse.DTO.IngestTicketDTO;
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.exceptions.IngestTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/** A roll waiting in {@link RollIngestQueue}, and the outcome of its batch once written. */
+public class IngestTicket {
+
+    private final String trackingId;
+
+    private final NewRollDTO roll;
+
+    private final CompletableFuture<MetalRollDTO> result = new CompletableFuture<>();
+
+    private final Duration awaitTimeout;
+
+    // System.nanoTime() when the batch finished, set by the writer
+    long finishedAt;
+
+    IngestTicket(String trackingId, NewRollDTO roll, Duration awaitTimeout) {
+        this.trackingId = trackingId;
+        this.roll = roll;
+        this.awaitTimeout = awaitTimeout;
+    }
+
+    public String getTrackingId() {
+        return trackingId;
+    }
+
+    NewRollDTO getRoll() {
+        return roll;
+    }
+
+    /** Completes with the saved roll when its batch commits. */
+    public CompletableFuture<MetalRollDTO> getResult() {
+        return result;
+    }
+
+    /**
+     * Waits for the batch of the roll and returns the saved roll, or throws what failed it.
+     * Throws {@link IngestTimeoutException} when the batch has not finished within the
+     * queue's await timeout; the roll may still be written after that.
+     */
+    public MetalRollDTO await() {
+        try {
+            return result.get(awaitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IngestTimeoutException("Roll " + trackingId + " was queued but its batch did not finish within "
+                    + awaitTimeout.toSeconds() + "s; it may still be added.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestTimeoutException("Interrupted while waiting for roll " + trackingId + ".");
+        }
+    }
+
+    public IngestTicketDTO toDTO() {
+        if (!result.isDone()) {
+            return new IngestTicketDTO(trackingId, IngestStatus.PENDING, null, null);
+        }
+        try {
+            return new IngestTicketDTO(trackingId, IngestStatus.COMMITTED, result.join(), null);
+        } catch (CompletionException e) {
+            return new IngestTicketDTO(trackingId, IngestStatus.FAILED, null, e.getCause().getMessage());
+        }
+    }
+}
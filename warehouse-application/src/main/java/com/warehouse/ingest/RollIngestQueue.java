@@ -0,0 +1,243 @@
+package com.warehouse.ingest;
+
+import com.warehouse.DTO.IngestTicketDTO;
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.exceptions.IngestQueueFullException;
+import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.exceptions.RollNotFoundException;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.services.MetalRollService;
+import com.warehouse.services.MetalRollServiceImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind queue for single roll additions. Rolls wait in a bounded lock-free queue, and
+ * one writer thread adds all that have accumulated, up to {@code warehouse.ingest.max-batch-size},
+ * in one transaction, so concurrent additions share a commit instead of paying for one each.
+ * When the queue is full, producers wait up to {@code warehouse.ingest.offer-timeout} and are
+ * then refused. A roll is durable only once its batch commits: rolls still queued when the
+ * process dies are lost, which is why {@link IngestAcknowledgement#COMMITTED} is the default.
+ */
+@Component
+public class RollIngestQueue implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RollIngestQueue.class);
+
+    // the writer also wakes up this often to drop expired tickets
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final MetalRollService rollService;
+
+    private final RollMetrics metrics;
+
+    private final boolean enabled;
+
+    private final IngestAcknowledgement acknowledgement;
+
+    private final int maxBatchSize;
+
+    private final long offerTimeoutNanos;
+
+    private final long retentionNanos;
+
+    private final Duration awaitTimeout;
+
+    private final ConcurrentLinkedQueue<IngestTicket> queue = new ConcurrentLinkedQueue<>();
+
+    // free places in the queue; taken by producers, given back when the batch of a roll has finished
+    private final Semaphore freeSlots;
+
+    // tickets that can be looked up by tracking id, only kept with ACCEPTED acknowledgement
+    private final Map<String, IngestTicket> tickets = new ConcurrentHashMap<>();
+
+    // tracked tickets in the order their batches finished, only touched by the writer
+    private final ArrayDeque<IngestTicket> finished = new ArrayDeque<>();
+
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    @Autowired
+    public RollIngestQueue(MetalRollService rollService, RollMetrics metrics,
+                           @Value("${warehouse.ingest.enabled:false}") boolean enabled,
+                           @Value("${warehouse.ingest.acknowledge:COMMITTED}") IngestAcknowledgement acknowledgement,
+                           @Value("${warehouse.ingest.capacity:10000}") int capacity,
+                           @Value("${warehouse.ingest.max-batch-size:1000}") int maxBatchSize,
+                           @Value("${warehouse.ingest.offer-timeout:0s}") Duration offerTimeout,
+                           @Value("${warehouse.ingest.retention:10m}") Duration retention,
+                           @Value("${warehouse.ingest.await-timeout:30s}") Duration awaitTimeout) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("warehouse.ingest.capacity must be positive, got " + capacity);
+        }
+        if (maxBatchSize < 1 || maxBatchSize > MetalRollServiceImpl.MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("warehouse.ingest.max-batch-size must be between 1 and "
+                    + MetalRollServiceImpl.MAX_BATCH_SIZE + ", got " + maxBatchSize);
+        }
+        this.rollService = rollService;
+        this.metrics = metrics;
+        this.enabled = enabled;
+        this.acknowledgement = acknowledgement;
+        this.maxBatchSize = maxBatchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.retentionNanos = retention.toNanos();
+        this.awaitTimeout = awaitTimeout;
+        this.freeSlots = new Semaphore(capacity);
+        this.writer = new Thread(this::runWriter, "roll-ingest-writer");
+        writer.setDaemon(true);
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public IngestAcknowledgement getAcknowledgement() {
+        return acknowledgement;
+    }
+
+    /**
+     * Validates the roll and queues it for the writer. Throws {@link IngestQueueFullException}
+     * when no place frees up within the offer timeout.
+     */
+    public IngestTicket submit(Double length, Double weight) {
+        if (length == null || weight == null || length <= 0 || weight <= 0) {
+            throw new InvalidRollDataException("Length and weight must be positive numbers.");
+        }
+        if (closed) {
+            throw new IngestQueueFullException("Ingest queue is shut down.");
+        }
+        if (!acquireSlot()) {
+            throw new IngestQueueFullException("Ingest queue is full, retry later.");
+        }
+
+        IngestTicket ticket = new IngestTicket(UUID.randomUUID().toString(), new NewRollDTO(length, weight), awaitTimeout);
+        if (acknowledgement == IngestAcknowledgement.ACCEPTED) {
+            tickets.put(ticket.getTrackingId(), ticket);
+        }
+        queue.add(ticket);
+        // closed after the check above, maybe after destroy() has drained the queue: whoever
+        // takes the ticket out completes it, so only one still in the queue is failed here
+        if (closed && queue.remove(ticket)) {
+            freeSlots.release();
+            tickets.remove(ticket.getTrackingId());
+            throw new IngestQueueFullException("Ingest queue is shut down.");
+        }
+        LockSupport.unpark(writer);
+        return ticket;
+    }
+
+    /** Status of a roll queued with ACCEPTED acknowledgement, kept for the retention time after its batch. */
+    public IngestTicketDTO getTicket(String trackingId) {
+        IngestTicket ticket = tickets.get(trackingId);
+        if (ticket == null) {
+            throw new RollNotFoundException("Ingest ticket " + trackingId + " not found.");
+        }
+        return ticket.toDTO();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        closed = true;
+        LockSupport.unpark(writer);
+        writer.join(SHUTDOWN_TIMEOUT.toMillis());
+        // submitted while the writer was finishing, or left behind by a timed out shutdown
+        IngestTicket ticket;
+        while ((ticket = queue.poll()) != null) {
+            ticket.getResult().completeExceptionally(new IngestQueueFullException("Ingest queue is shut down."));
+        }
+    }
+
+    private boolean acquireSlot() {
+        if (freeSlots.tryAcquire()) {
+            return true;
+        }
+        try {
+            return offerTimeoutNanos > 0 && freeSlots.tryAcquire(offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void runWriter() {
+        List<IngestTicket> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            IngestTicket ticket;
+            while (batch.size() < maxBatchSize && (ticket = queue.poll()) != null) {
+                batch.add(ticket);
+            }
+            if (batch.isEmpty()) {
+                // the queue is drained before the writer stops, so accepted rolls are still written
+                if (closed) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            } else {
+                try {
+                    write(batch);
+                } finally {
+                    // released only now, so the capacity also bounds the rolls being written
+                    freeSlots.release(batch.size());
+                    batch.clear();
+                }
+            }
+            expireTickets();
+        }
+    }
+
+    private void write(List<IngestTicket> batch) {
+        List<NewRollDTO> rolls = new ArrayList<>(batch.size());
+        for (IngestTicket ticket : batch) {
+            rolls.add(ticket.getRoll());
+        }
+        metrics.recordIngestBatch(rolls.size());
+
+        try {
+            List<MetalRollDTO> saved = rollService.addMetalRolls(rolls);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).getResult().complete(saved.get(i));
+            }
+        } catch (Throwable e) {
+            // anything escaping would end the writer and leave every later roll waiting
+            log.warn("Failed to write a batch of {} queued rolls", batch.size(), e);
+            batch.forEach(ticket -> ticket.getResult().completeExceptionally(e));
+        }
+
+        if (acknowledgement == IngestAcknowledgement.ACCEPTED) {
+            long now = System.nanoTime();
+            for (IngestTicket ticket : batch) {
+                ticket.finishedAt = now;
+                finished.add(ticket);
+            }
+        }
+    }
+
+    private void expireTickets() {
+        long now = System.nanoTime();
+        while (!finished.isEmpty() && now - finished.peekFirst().finishedAt > retentionNanos) {
+            tickets.remove(finished.pollFirst().getTrackingId());
+        }
+    }
+}
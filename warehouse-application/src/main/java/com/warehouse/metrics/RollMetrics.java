@@ -0,0 +1,95 @@
+package com.warehouse.metrics;
+
+import com.warehouse.DTO.FilterDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.StringJoiner;
+
+/**
+ * Sizes of what the read paths return or walk through. Row counts are tagged with the filter
+ * shape, so slow query patterns can be told apart from large results.
+ */
+@Component
+public class RollMetrics {
+
+    public static final String NO_FILTER = "none";
+
+    private final MeterRegistry registry;
+
+    public RollMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordReturnedRolls(String operation, FilterDTO filter, long rows) {
+        recordReturnedRolls(operation, filterShape(filter), rows);
+    }
+
+    /** For read paths that take no filter; tagged {@code "none"}. */
+    public void recordReturnedRolls(String operation, long rows) {
+        recordReturnedRolls(operation, NO_FILTER, rows);
+    }
+
+    private void recordReturnedRolls(String operation, String filterShape, long rows) {
+        DistributionSummary.builder("warehouse.rolls.returned")
+                .description("Rolls returned by one list, page or stream request")
+                .baseUnit("rolls")
+                .tag("operation", operation)
+                .tag("filter", filterShape)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(rows);
+    }
+
+    public void recordStatisticsRolls(long activeRolls) {
+        DistributionSummary.builder("warehouse.statistics.rolls")
+                .description("Rolls in stock at some point of the statistics period")
+                .baseUnit("rolls")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(activeRolls);
+    }
+
+    public void recordOccupancyDays(long days) {
+        DistributionSummary.builder("warehouse.statistics.days")
+                .description("Days walked through to find the minimum and maximum stock")
+                .baseUnit("days")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(days);
+    }
+
+    public void recordIngestBatch(int rolls) {
+        DistributionSummary.builder("warehouse.ingest.batch")
+                .description("Queued rolls written in one transaction by the ingest writer")
+                .baseUnit("rolls")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(rolls);
+    }
+
+    /**
+     * Names of the filters that are set, e.g. {@code "length+added"}, or {@code "none"}.
+     * At most 32 values, so the tag stays low-cardinality.
+     */
+    public static String filterShape(FilterDTO filter) {
+        StringJoiner shape = new StringJoiner("+");
+        if (filter.hasIdFilter()) {
+            shape.add("id");
+        }
+        if (filter.hasLengthFilter()) {
+            shape.add("length");
+        }
+        if (filter.hasWeightFilter()) {
+            shape.add("weight");
+        }
+        if (filter.hasAddedDateFilter()) {
+            shape.add("added");
+        }
+        if (filter.hasRemovedDateFilter()) {
+            shape.add("removed");
+        }
+        return shape.length() == 0 ? NO_FILTER : shape.toString();
+    }
+}
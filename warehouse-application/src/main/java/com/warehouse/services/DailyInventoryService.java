@@ -0,0 +1,24 @@
+package com.warehouse.services;
+
+import com.warehouse.DTO.BucketSize;
+import com.warehouse.DTO.InventoryCheckDTO;
+import com.warehouse.DTO.StockBucketDTO;
+import com.warehouse.statistics.DailyOccupancy;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyInventoryService {
+
+    void recordChange(LocalDate day, long added, double addedWeight, long removed, double removedWeight);
+
+    DailyOccupancy getOccupancy(LocalDate periodStart, LocalDate periodEnd);
+
+    List<StockBucketDTO> getSeries(LocalDate periodStart, LocalDate periodEnd, BucketSize size);
+
+    long rebuild();
+
+    boolean rebuildIfEmpty();
+
+    InventoryCheckDTO check();
+}
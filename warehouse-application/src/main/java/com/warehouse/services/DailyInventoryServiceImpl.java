@@ -0,0 +1,185 @@
+package com.warehouse.services;
+
+import com.warehouse.DTO.BucketSize;
+import com.warehouse.DTO.InventoryCheckDTO;
+import com.warehouse.DTO.StockBucketDTO;
+import com.warehouse.entities.DailyInventory;
+import com.warehouse.projections.DailyRollDelta;
+import com.warehouse.repositories.DailyInventoryRepository;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.statistics.DailyOccupancy;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+@Service
+public class DailyInventoryServiceImpl implements DailyInventoryService {
+
+    private static final double WEIGHT_TOLERANCE = 1e-6;
+
+    private final DailyInventoryRepository repository;
+
+    private final MetalRollRepository rollRepository;
+
+    public DailyInventoryServiceImpl(DailyInventoryRepository repository, MetalRollRepository rollRepository) {
+        this.repository = repository;
+        this.rollRepository = rollRepository;
+    }
+
+    @Transactional
+    public void recordChange(LocalDate day, long added, double addedWeight, long removed, double removedWeight) {
+        repository.recordChange(day, added, addedWeight, removed, removedWeight);
+    }
+
+    @Transactional(readOnly = true)
+    public DailyOccupancy getOccupancy(LocalDate periodStart, LocalDate periodEnd) {
+        DailyOccupancy occupancy = new DailyOccupancy(periodStart, periodEnd);
+
+        repository.findFirstByInventoryDayLessThanOrderByInventoryDayDesc(periodStart)
+                .ifPresent(row -> occupancy.addDelta(periodStart, row.getActiveCount(), row.getTotalWeight()));
+
+        for (DailyInventory row : repository.findByInventoryDayBetweenOrderByInventoryDay(periodStart, periodEnd)) {
+            occupancy.addDelta(row.getInventoryDay(),
+                    row.getAddedCount() - row.getRemovedCount(),
+                    row.getAddedWeight() - row.getRemovedWeight());
+        }
+        return occupancy;
+    }
+
+    // One pass over the rows of the period: days without a row add nothing and keep the stock.
+    @Transactional(readOnly = true)
+    public List<StockBucketDTO> getSeries(LocalDate periodStart, LocalDate periodEnd, BucketSize size) {
+        long activeCount = 0;
+        double totalWeight = 0.0;
+        DailyInventory before = repository.findFirstByInventoryDayLessThanOrderByInventoryDayDesc(periodStart)
+                .orElse(null);
+        if (before != null) {
+            activeCount = before.getActiveCount();
+            totalWeight = before.getTotalWeight();
+        }
+
+        List<DailyInventory> rows = repository.findByInventoryDayBetweenOrderByInventoryDay(periodStart, periodEnd);
+        List<StockBucketDTO> series = new ArrayList<>();
+        int next = 0;
+        for (LocalDate bucket = periodStart; !bucket.isAfter(periodEnd); ) {
+            LocalDate last = lastDayOfBucket(bucket, size);
+            if (last.isAfter(periodEnd)) {
+                last = periodEnd;
+            }
+
+            long added = 0;
+            long removed = 0;
+            for (; next < rows.size() && !rows.get(next).getInventoryDay().isAfter(last); next++) {
+                DailyInventory row = rows.get(next);
+                added += row.getAddedCount();
+                removed += row.getRemovedCount();
+                activeCount = row.getActiveCount();
+                totalWeight = row.getTotalWeight();
+            }
+            series.add(new StockBucketDTO(bucket, activeCount, totalWeight, added, removed));
+            bucket = last.plusDays(1);
+        }
+        return series;
+    }
+
+    private static LocalDate lastDayOfBucket(LocalDate day, BucketSize size) {
+        return switch (size) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTH -> day.with(TemporalAdjusters.lastDayOfMonth());
+        };
+    }
+
+    @Transactional
+    public long rebuild() {
+        List<DailyInventory> rows = computeFromRolls();
+        repository.deleteAllInBatch();
+        repository.saveAll(rows);
+        return rows.size();
+    }
+
+    @Transactional
+    public boolean rebuildIfEmpty() {
+        if (repository.count() > 0 || rollRepository.count() == 0) {
+            return false;
+        }
+        rebuild();
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public InventoryCheckDTO check() {
+        InventoryCheckDTO result = new InventoryCheckDTO();
+
+        TreeMap<LocalDate, DailyInventory> stored = new TreeMap<>();
+        repository.findAll(Sort.by("inventoryDay")).forEach(row -> stored.put(row.getInventoryDay(), row));
+
+        for (DailyInventory expected : computeFromRolls()) {
+            DailyInventory actual = stored.remove(expected.getInventoryDay());
+            result.setCheckedDays(result.getCheckedDays() + 1);
+            if (actual == null || !matches(expected, actual)) {
+                registerMismatch(result, expected.getInventoryDay());
+            }
+        }
+        // rows left over have no additions or removals behind them
+        for (LocalDate day : stored.keySet()) {
+            result.setCheckedDays(result.getCheckedDays() + 1);
+            registerMismatch(result, day);
+        }
+        return result;
+    }
+
+    private List<DailyInventory> computeFromRolls() {
+        TreeMap<LocalDate, DailyInventory> byDay = new TreeMap<>();
+        for (DailyRollDelta delta : rollRepository.findDailyDeltas()) {
+            DailyInventory row = byDay.computeIfAbsent(delta.day(),
+                    day -> new DailyInventory(day, 0, 0, 0.0, 0.0, 0, 0.0));
+            if (delta.rolls() > 0) {
+                row.setAddedCount(delta.rolls());
+                row.setAddedWeight(delta.weight());
+            } else {
+                row.setRemovedCount(-delta.rolls());
+                row.setRemovedWeight(-delta.weight());
+            }
+        }
+
+        long activeCount = 0;
+        double totalWeight = 0.0;
+        List<DailyInventory> rows = new ArrayList<>(byDay.size());
+        for (DailyInventory row : byDay.values()) {
+            activeCount += row.getAddedCount() - row.getRemovedCount();
+            totalWeight = activeCount == 0 ? 0.0 : totalWeight + row.getAddedWeight() - row.getRemovedWeight();
+            row.setActiveCount(activeCount);
+            row.setTotalWeight(totalWeight);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static boolean matches(DailyInventory expected, DailyInventory actual) {
+        return expected.getAddedCount() == actual.getAddedCount()
+                && expected.getRemovedCount() == actual.getRemovedCount()
+                && expected.getActiveCount() == actual.getActiveCount()
+                && closeTo(expected.getAddedWeight(), actual.getAddedWeight())
+                && closeTo(expected.getRemovedWeight(), actual.getRemovedWeight())
+                && closeTo(expected.getTotalWeight(), actual.getTotalWeight());
+    }
+
+    private static boolean closeTo(double expected, double actual) {
+        return Math.abs(expected - actual) <= WEIGHT_TOLERANCE * Math.max(1.0, Math.abs(expected));
+    }
+
+    private static void registerMismatch(InventoryCheckDTO result, LocalDate day) {
+        result.setMismatchedDays(result.getMismatchedDays() + 1);
+        if (result.getFirstMismatch() == null || day.isBefore(result.getFirstMismatch())) {
+            result.setFirstMismatch(day);
+        }
+    }
+}
@@ -1,19 +1,55 @@
 package com.warehouse.services;
 
+import com.warehouse.DTO.BucketSize;
 import com.warehouse.DTO.FilterDTO;
 import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.DTO.RemovalResultDTO;
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.DTO.RollPageDTO;
+import com.warehouse.DTO.RollPercentilesDTO;
 import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.DTO.StatisticsCacheStatsDTO;
+import com.warehouse.DTO.StockBucketDTO;
+import com.warehouse.changes.RollChangeFeed;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface MetalRollService {
 
     MetalRollDTO addMetalRoll(double length, double weight);
 
+    List<MetalRollDTO> addMetalRolls(List<NewRollDTO> rolls);
+
     MetalRollDTO removeMetalRoll(int id);
 
+    List<RemovalResultDTO> removeMetalRolls(List<Integer> ids);
+
+    List<RemovalResultDTO> removeMatchingMetalRolls(FilterDTO filter);
+
     List<MetalRollDTO> getFilteredMetalRolls(FilterDTO filter);
 
+    List<MetalRollDTO> getActiveMetalRolls(LocalDate date);
+
+    RollPageDTO getMetalRollsPage(FilterDTO filter, Integer after, int limit);
+
+    void validateFilter(FilterDTO filter);
+
+    void streamFilteredMetalRolls(FilterDTO filter, Consumer<MetalRollDTO> consumer);
+
+    CompletableFuture<List<RollChangeDTO>> awaitRollChanges(long since, int limit, Duration wait);
+
+    RollChangeFeed.Subscription subscribeToRollChanges(long since, Consumer<List<RollChangeDTO>> listener);
+
     RollStatisticsDTO getStatistics(LocalDate periodStart, LocalDate periodEnd);
+
+    RollPercentilesDTO getPercentiles(LocalDate periodStart, LocalDate periodEnd);
+
+    List<StockBucketDTO> getStockSeries(LocalDate periodStart, LocalDate periodEnd, BucketSize size);
+
+    StatisticsCacheStatsDTO getStatisticsCacheStats();
 }
@@ -1,118 +1,442 @@
 package com.warehouse.services;
 
+import com.warehouse.DTO.BucketSize;
 import com.warehouse.DTO.FilterDTO;
 import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.DTO.PercentilesDTO;
+import com.warehouse.DTO.RemovalOutcome;
+import com.warehouse.DTO.RemovalResultDTO;
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.DTO.RollPageDTO;
+import com.warehouse.DTO.RollPercentilesDTO;
 import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.DTO.StatisticsCacheStatsDTO;
+import com.warehouse.DTO.StockBucketDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.datasource.ReplicaRoutingDataSource;
 import com.warehouse.entities.MetalRoll;
 import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.exceptions.RollAlreadyRemovedException;
 import com.warehouse.exceptions.RollNotFoundException;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.projections.RemovedRoll;
+import com.warehouse.projections.RollMeasures;
+import com.warehouse.projections.RollPeriodAggregate;
 import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.specifications.MetalRollSpecification;
+import com.warehouse.statistics.DailyOccupancy;
+import com.warehouse.statistics.LogHistogram;
+import com.warehouse.statistics.RollHistograms;
+import com.warehouse.statistics.StatisticsCache;
+import com.warehouse.statistics.StatisticsQueryExecutor;
+import com.warehouse.store.ColumnarRollStore;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "warehouse.service", histogram = true)
 public class MetalRollServiceImpl implements MetalRollService{
 
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final Duration MAX_CHANGES_WAIT = Duration.ofSeconds(60);
+
     private final MetalRollRepository repository;
 
-    public MetalRollServiceImpl(MetalRollRepository repository) {
+    private final DailyInventoryService inventoryService;
+
+    private final StatisticsCache statisticsCache;
+
+    private final StatisticsQueryExecutor queryExecutor;
+
+    private final ColumnarRollStore rollStore;
+
+    private final RollChangeFeed changeFeed;
+
+    private final RollMetrics metrics;
+
+    public MetalRollServiceImpl(MetalRollRepository repository, DailyInventoryService inventoryService,
+                                StatisticsCache statisticsCache, StatisticsQueryExecutor queryExecutor,
+                                ColumnarRollStore rollStore, RollChangeFeed changeFeed, RollMetrics metrics) {
         this.repository = repository;
+        this.inventoryService = inventoryService;
+        this.statisticsCache = statisticsCache;
+        this.queryExecutor = queryExecutor;
+        this.rollStore = rollStore;
+        this.changeFeed = changeFeed;
+        this.metrics = metrics;
     }
 
+    @Transactional
     public MetalRollDTO addMetalRoll(double length, double weight) {
         if (length <= 0 || weight <= 0) {
             throw new InvalidRollDataException("Length and weight must be positive numbers.");
         }
 
         MetalRoll roll = new MetalRoll(length, weight, LocalDate.now(), null);
-        return new MetalRollDTO(repository.save(roll));
+        MetalRoll saved = repository.save(roll);
+        inventoryService.recordChange(saved.getDateAdded(), 1, weight, 0, 0.0);
+        statisticsCache.invalidateFrom(saved.getDateAdded());
+        rollStore.rollsAdded(List.of(saved));
+        changeFeed.rollsAdded(List.of(saved.getId()));
+
+        return new MetalRollDTO(saved);
+    }
+
+    @Transactional
+    public List<MetalRollDTO> addMetalRolls(List<NewRollDTO> rolls) {
+        if (rolls.isEmpty() || rolls.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRollDataException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " rolls.");
+        }
+        for (int i = 0; i < rolls.size(); i++) {
+            NewRollDTO r = rolls.get(i);
+            if (r.getLength() == null || r.getWeight() == null || r.getLength() <= 0 || r.getWeight() <= 0) {
+                throw new InvalidRollDataException("Length and weight must be positive numbers (roll #" + (i + 1) + ").");
+            }
+        }
+
+        LocalDate today = LocalDate.now();
+        double totalWeight = 0.0;
+        List<MetalRoll> entities = new ArrayList<>(rolls.size());
+        for (NewRollDTO r : rolls) {
+            entities.add(new MetalRoll(r.getLength(), r.getWeight(), today, null));
+            totalWeight += r.getWeight();
+        }
+
+        List<MetalRoll> saved = repository.insertAll(entities);
+        inventoryService.recordChange(today, saved.size(), totalWeight, 0, 0.0);
+        statisticsCache.invalidateFrom(today);
+        rollStore.rollsAdded(saved);
+        changeFeed.rollsAdded(saved.stream().map(MetalRoll::getId).toList());
+
+        return saved.stream().map(MetalRollDTO::new).toList();
     }
 
+    @Transactional
     public MetalRollDTO removeMetalRoll(int id) {
         if (id <= 0) {
             throw new InvalidRollDataException("Id must be positive numbers.");
         }
 
-        MetalRoll roll = repository.findById(id).orElseThrow(() -> new RollNotFoundException("MetalRoll with id " + id + " not found"));
-        roll.setDateOfDeletion(LocalDate.now());
-        MetalRoll saved = repository.save(roll);
+        // a conditional UPDATE instead of read-modify-write: of concurrent removals exactly one
+        // changes the row, and the others match nothing once it commits; no lock is taken to read
+        LocalDate today = LocalDate.now();
+        List<RemovedRoll> removed = repository.removeActive(List.of(id), today);
+        if (removed.isEmpty()) {
+            if (repository.existsById(id)) {
+                throw new RollAlreadyRemovedException("MetalRoll with id " + id + " is already removed");
+            }
+            throw new RollNotFoundException("MetalRoll with id " + id + " not found");
+        }
+        recordRemovals(today, removed);
 
-        return new MetalRollDTO(saved);
+        MetalRoll roll = repository.findById(id).orElseThrow();
+        return new MetalRollDTO(roll);
     }
 
+    @Transactional
+    public List<RemovalResultDTO> removeMetalRolls(List<Integer> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRollDataException("Batch must contain between 1 and " + MAX_BATCH_SIZE + " rolls.");
+        }
+        for (Integer id : ids) {
+            if (id == null || id <= 0) {
+                throw new InvalidRollDataException("Id must be positive numbers.");
+            }
+        }
+
+        Set<Integer> requested = new LinkedHashSet<>(ids);
+        LocalDate today = LocalDate.now();
+        List<RemovedRoll> removed = repository.removeActive(requested, today);
+        recordRemovals(today, removed);
+
+        Set<Integer> removedIds = removed.stream().map(RemovedRoll::id).collect(Collectors.toSet());
+        List<Integer> notRemoved = requested.stream().filter(id -> !removedIds.contains(id)).toList();
+        Set<Integer> existing = notRemoved.isEmpty() ? Set.of() : new HashSet<>(repository.findExistingIds(notRemoved));
+
+        return requested.stream().map(id -> new RemovalResultDTO(id,
+                removedIds.contains(id) ? RemovalOutcome.REMOVED
+                        : existing.contains(id) ? RemovalOutcome.ALREADY_REMOVED
+                        : RemovalOutcome.NOT_FOUND)).toList();
+    }
+
+    @Transactional
+    public List<RemovalResultDTO> removeMatchingMetalRolls(FilterDTO filter) {
+        MetalRollSpecification spec = toSpecification(filter);
+        if (!spec.isRestricted()) {
+            throw new InvalidRollDataException("At least one filter is required to remove rolls.");
+        }
+
+        LocalDate today = LocalDate.now();
+        // one roll over the cap is enough to tell the filter is too broad; throwing rolls the update back
+        List<RemovedRoll> removed = repository.removeMatching(spec, today, MAX_BATCH_SIZE + 1);
+        if (removed.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRollDataException("Filter matches more than " + MAX_BATCH_SIZE + " rolls.");
+        }
+        recordRemovals(today, removed);
+
+        // rolls removed before the update no longer match, so every returned roll was removed by it
+        return removed.stream()
+                .map(RemovedRoll::id)
+                .sorted()
+                .map(id -> new RemovalResultDTO(id, RemovalOutcome.REMOVED))
+                .toList();
+    }
+
+    private void recordRemovals(LocalDate day, List<RemovedRoll> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        double weight = 0.0;
+        for (RemovedRoll r : removed) {
+            weight += r.weight();
+        }
+        inventoryService.recordChange(day, 0, 0.0, removed.size(), weight);
+        statisticsCache.invalidateFrom(day);
+        List<Integer> ids = removed.stream().map(RemovedRoll::id).toList();
+        rollStore.rollsRemoved(ids, day);
+        changeFeed.rollsRemoved(ids);
+    }
+
+    @Transactional(readOnly = true)
     public List<MetalRollDTO> getFilteredMetalRolls(FilterDTO filter) {
-        List<MetalRoll> rolls = repository.findAll();
+        MetalRollSpecification spec = toSpecification(filter);
+        List<MetalRollDTO> rolls = rollStore.isReady()
+                ? rollStore.find(spec)
+                : repository.findAll(spec).stream().map(MetalRollDTO::new).toList();
+        metrics.recordReturnedRolls("list", filter, rolls.size());
+        return rolls;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MetalRollDTO> getActiveMetalRolls(LocalDate date) {
+        List<MetalRollDTO> rolls = rollStore.isReady()
+                ? rollStore.findActive(date, date)
+                : repository.findActiveInPeriod(date, date).stream()
+                        .sorted(Comparator.comparing(MetalRoll::getId))
+                        .map(MetalRollDTO::new)
+                        .toList();
+        metrics.recordReturnedRolls("active", rolls.size());
+        return rolls;
+    }
+
+    @Transactional(readOnly = true)
+    public RollPageDTO getMetalRollsPage(FilterDTO filter, Integer after, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRollDataException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (after != null && after < 0) {
+            throw new InvalidRollDataException("Cursor must not be negative.");
+        }
+
+        MetalRollSpecification spec = toSpecification(filter);
+        if (after != null) {
+            spec.idGreaterThan(after);
+        }
+
+        List<MetalRoll> rolls = repository.findBy(spec, q -> q.sortBy(Sort.by("id")).limit(limit + 1).all());
+        metrics.recordReturnedRolls("page", filter, Math.min(rolls.size(), limit));
+        if (rolls.size() <= limit) {
+            return new RollPageDTO(rolls.stream().map(MetalRollDTO::new).toList(), null);
+        }
+
+        List<MetalRoll> page = rolls.subList(0, limit);
+        return new RollPageDTO(page.stream().map(MetalRollDTO::new).toList(), page.get(limit - 1).getId());
+    }
+
+    // Streaming responses are committed before their body runs, so a bad filter is rejected up front.
+    public void validateFilter(FilterDTO filter) {
+        toSpecification(filter);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamFilteredMetalRolls(FilterDTO filter, Consumer<MetalRollDTO> consumer) {
+        long[] count = {0};
+        try (Stream<MetalRoll> rolls = repository.streamAll(toSpecification(filter), STREAM_FETCH_SIZE)) {
+            rolls.forEach(r -> {
+                consumer.accept(new MetalRollDTO(r));
+                count[0]++;
+            });
+        }
+        metrics.recordReturnedRolls("stream", filter, count[0]);
+    }
+
+    public CompletableFuture<List<RollChangeDTO>> awaitRollChanges(long since, int limit, Duration wait) {
+        validateChangesCursor(since);
+        if (limit <= 0 || limit > RollChangeFeed.MAX_BATCH_SIZE) {
+            throw new InvalidRollDataException("Limit must be between 1 and " + RollChangeFeed.MAX_BATCH_SIZE + ".");
+        }
+        if (wait.isNegative() || wait.compareTo(MAX_CHANGES_WAIT) > 0) {
+            throw new InvalidRollDataException("Wait must be between 0 and " + MAX_CHANGES_WAIT.toSeconds() + " seconds.");
+        }
+
+        if (wait.isZero()) {
+            return CompletableFuture.completedFuture(changeFeed.changesAfter(since, limit));
+        }
+        return changeFeed.nextChanges(since, limit, wait);
+    }
+
+    public RollChangeFeed.Subscription subscribeToRollChanges(long since, Consumer<List<RollChangeDTO>> listener) {
+        validateChangesCursor(since);
+
+        return changeFeed.subscribe(since, RollChangeFeed.MAX_BATCH_SIZE, listener);
+    }
+
+    private static void validateChangesCursor(long since) {
+        if (since < 0) {
+            throw new InvalidRollDataException("Cursor must not be negative.");
+        }
+    }
+
+    private MetalRollSpecification toSpecification(FilterDTO filter) {
+        MetalRollSpecification spec = new MetalRollSpecification();
 
         if (filter.hasIdFilter()) {
             if(filter.getIdFrom() <= 0 || filter.getIdTo() <=0) {
                 throw new InvalidRollDataException("Id must be positive numbers.");
             }
-            rolls = rolls.stream()
-                    .filter(r -> r.getId() >= filter.getIdFrom() && r.getId() <= filter.getIdTo())
-                    .toList();
+            spec.idBetween(filter.getIdFrom(), filter.getIdTo());
         }
 
         if (filter.hasLengthFilter()) {
             if(filter.getLengthFrom() < 0 || filter.getLengthTo() < 0) {
                 throw new InvalidRollDataException("Length must be positive numbers.");
             }
-            rolls = rolls.stream()
-                    .filter(r -> r.getLength() >= filter.getLengthFrom() && r.getLength() <= filter.getLengthTo())
-                    .toList();
+            spec.lengthBetween(filter.getLengthFrom(), filter.getLengthTo());
         }
 
         if (filter.hasWeightFilter()) {
             if(filter.getWeightFrom() < 0 || filter.getWeightTo() < 0) {
                 throw new InvalidRollDataException("Weight must be positive numbers.");
             }
-            rolls = rolls.stream()
-                    .filter(r -> r.getWeight() >= filter.getWeightFrom() && r.getWeight() <= filter.getWeightTo())
-                    .toList();
+            spec.weightBetween(filter.getWeightFrom(), filter.getWeightTo());
         }
 
         if (filter.hasAddedDateFilter()) {
             if(filter.getAddedFrom().isAfter(filter.getAddedTo())) {
                 throw new InvalidRollDataException("The start date of adding cannot be later than the end date.");
             }
-            rolls = rolls.stream()
-                    .filter(r -> !r.getDateAdded().isBefore(filter.getAddedFrom()) &&
-                            !r.getDateAdded().isAfter(filter.getAddedTo()))
-                    .toList();
+            spec.addedBetween(filter.getAddedFrom(), filter.getAddedTo());
         }
 
         if (filter.hasRemovedDateFilter()) {
             if(filter.getRemovedFrom().isAfter(filter.getRemovedTo())) {
                 throw new InvalidRollDataException("The deletion start date cannot be later than the end date.");
             }
-            rolls = rolls.stream()
-                    .filter(r -> r.getDateOfDeletion() != null &&
-                            !r.getDateOfDeletion().isBefore(filter.getRemovedFrom()) &&
-                            !r.getDateOfDeletion().isAfter(filter.getRemovedTo()))
-                    .toList();
+            spec.removedBetween(filter.getRemovedFrom(), filter.getRemovedTo());
         }
 
-        return rolls.stream().map(MetalRollDTO::new).toList();
+        return spec;
     }
 
     public RollStatisticsDTO getStatistics(LocalDate periodStart, LocalDate periodEnd) {
+        validatePeriod(periodStart, periodEnd);
+
+        return statisticsCache.get(periodStart, periodEnd, () -> computeStatistics(periodStart, periodEnd));
+    }
+
+    @Transactional(readOnly = true)
+    public RollPercentilesDTO getPercentiles(LocalDate periodStart, LocalDate periodEnd) {
+        validatePeriod(periodStart, periodEnd);
+
+        RollHistograms histograms = rollStore.isReady()
+                ? rollStore.histograms(periodStart, periodEnd)
+                : histogramsFromRepository(periodStart, periodEnd);
+
+        RollPercentilesDTO percentiles = new RollPercentilesDTO();
+        percentiles.setRollCount(histograms.lengths().count());
+        percentiles.setRemovedCount(histograms.storageDays().count());
+        percentiles.setLength(new PercentilesDTO(histograms.lengths()));
+        percentiles.setWeight(new PercentilesDTO(histograms.weights()));
+        percentiles.setStorageDays(new PercentilesDTO(histograms.storageDays()));
+        percentiles.setRelativeError(LogHistogram.RELATIVE_ACCURACY);
+        return percentiles;
+    }
+
+    // Without the in-memory store there are no per-day histograms to merge: every roll in stock
+    // during the period is read, once and as a streamed projection, so a long period costs a
+    // scan of most of the table but not its entities. Nothing is sorted.
+    private RollHistograms histogramsFromRepository(LocalDate periodStart, LocalDate periodEnd) {
+        RollHistograms histograms = new RollHistograms();
+        try (Stream<RollMeasures> rolls = repository.streamMeasuresInPeriod(periodStart, periodEnd)) {
+            rolls.forEach(roll -> {
+                histograms.lengths().add(roll.length());
+                histograms.weights().add(roll.weight());
+                if (roll.dateOfDeletion() != null) {
+                    histograms.storageDays().add(ChronoUnit.DAYS.between(roll.dateAdded(), roll.dateOfDeletion()));
+                }
+            });
+        }
+        return histograms;
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockBucketDTO> getStockSeries(LocalDate periodStart, LocalDate periodEnd, BucketSize size) {
+        validatePeriod(periodStart, periodEnd);
+
+        return inventoryService.getSeries(periodStart, periodEnd, size);
+    }
+
+    private static void validatePeriod(LocalDate periodStart, LocalDate periodEnd) {
         if(periodStart.isAfter(periodEnd)) {
             throw new InvalidRollDataException("The start date of the period cannot be later than the end date");
         }
+    }
+
+    public StatisticsCacheStatsDTO getStatisticsCacheStats() {
+        return statisticsCache.getStats();
+    }
+
+    private RollStatisticsDTO computeStatistics(LocalDate periodStart, LocalDate periodEnd) {
+        if (rollStore.isReady()) {
+            return toStatistics(rollStore.aggregate(periodStart, periodEnd),
+                    () -> rollStore.occupancy(periodStart, periodEnd), periodStart, periodEnd);
+        }
+
+        // Both queries are forked and joined outside any transaction, so the request holds no
+        // connection while it waits for them, and both read the primary: the result may be cached
+        // right after a write was invalidated, and two replicas may trail it by different amounts.
+        // They are joined, or cancelled and waited for, before the scope closes.
+        try (StatisticsQueryExecutor.Scope scope = queryExecutor.open()) {
+            Supplier<DailyOccupancy> occupancy = scope.fork(() -> ReplicaRoutingDataSource.onPrimary(
+                    () -> inventoryService.getOccupancy(periodStart, periodEnd)));
+            Supplier<RollPeriodAggregate> aggregate = scope.fork(() -> ReplicaRoutingDataSource.onPrimary(
+                    () -> repository.aggregateInPeriod(periodStart, periodEnd)));
+            return toStatistics(aggregate.get(), occupancy, periodStart, periodEnd);
+        }
+    }
 
-        List<MetalRoll> activeRolls = repository.findActiveInPeriod(periodStart, periodEnd);
-        List<MetalRoll> addedInPeriod = repository.findByDateAddedBetween(periodStart, periodEnd);
-        List<MetalRoll> removedInPeriod = repository.findByDateOfDeletionBetween(periodStart, periodEnd);
+    private RollStatisticsDTO toStatistics(RollPeriodAggregate aggregate, Supplier<DailyOccupancy> occupancy,
+                                           LocalDate periodStart, LocalDate periodEnd) {
+        metrics.recordStatisticsRolls(aggregate.activeCount());
 
         RollStatisticsDTO stats = new RollStatisticsDTO();
-        stats.setAddedCount(addedInPeriod.size());
-        stats.setRemovedCount(removedInPeriod.size());
+        stats.setAddedCount(aggregate.addedCount());
+        stats.setRemovedCount(aggregate.removedCount());
 
-        if (activeRolls.isEmpty()) {
+        if (aggregate.activeCount() == 0) {
             stats.setAvgLength(0.0);
             stats.setAvgWeight(0.0);
             stats.setMaxLength(0.0);
@@ -125,99 +449,30 @@ public class MetalRollServiceImpl implements MetalRollService{
             return stats;
         }
 
-        double totalLength = 0.0;
-        double totalWeight = 0.0;
-        double maxLength = Double.NEGATIVE_INFINITY;
-        double minLength = Double.POSITIVE_INFINITY;
-        double maxWeight = Double.NEGATIVE_INFINITY;
-        double minWeight = Double.POSITIVE_INFINITY;
-
-        List<Long> intervals = new ArrayList<>();
-
-        for (MetalRoll r : activeRolls) {
-            double length = r.getLength();
-            double weight = r.getWeight();
-
-            totalLength += length;
-            totalWeight += weight;
-
-            if (length > maxLength) maxLength = length;
-            if (length < minLength) minLength = length;
-            if (weight > maxWeight) maxWeight = weight;
-            if (weight < minWeight) minWeight = weight;
-
-            if (r.getDateOfDeletion() != null) {
-                long days = r.getDateOfDeletion().toEpochDay() - r.getDateAdded().toEpochDay();
-                intervals.add(days);
-            }
-        }
-
-        stats.setAvgLength(totalLength / activeRolls.size());
-        stats.setAvgWeight(totalWeight / activeRolls.size());
-        stats.setMaxLength(maxLength);
-        stats.setMinLength(minLength);
-        stats.setMaxWeight(maxWeight);
-        stats.setMinWeight(minWeight);
-        stats.setTotalWeight(totalWeight);
-
-        if (!intervals.isEmpty()) {
-            long maxInterval = intervals.stream().mapToLong(Long::longValue).max().orElse(0L);
-            long minInterval = intervals.stream().mapToLong(Long::longValue).min().orElse(0L);
-            stats.setMaxIntervalDays(maxInterval);
-            stats.setMinIntervalDays(minInterval);
+        stats.setAvgLength(aggregate.avgLength());
+        stats.setAvgWeight(aggregate.avgWeight());
+        stats.setMaxLength(aggregate.maxLength());
+        stats.setMinLength(aggregate.minLength());
+        stats.setMaxWeight(aggregate.maxWeight());
+        stats.setMinWeight(aggregate.minWeight());
+        stats.setTotalWeight(aggregate.totalWeight());
+
+        if (aggregate.maxIntervalDays() != null) {
+            stats.setMaxIntervalDays(aggregate.maxIntervalDays());
+            stats.setMinIntervalDays(aggregate.minIntervalDays());
         } else {
             stats.setMaxIntervalDays(0L);
             stats.setMinIntervalDays(-1L);
         }
 
-        calculateMinMax(periodStart, periodEnd, activeRolls, stats);
-
+        calculateMinMax(occupancy.get(), periodStart, periodEnd, stats);
 
         return stats;
     }
 
-    private void calculateMinMax(LocalDate periodStart, LocalDate periodEnd, List<MetalRoll> activeRolls, RollStatisticsDTO stats) {
-        Map<LocalDate, Long> countByDay = new HashMap<>();
-        Map<LocalDate, Double> weightByDay = new HashMap<>();
-
-        LocalDate current = periodStart;
-        while (!current.isAfter(periodEnd)) {
-            long count = 0;
-            double weight = 0.0;
-
-            for (MetalRoll r : activeRolls) {
-                if (r.getDateAdded().isAfter(current)) continue;
-                if (r.getDateOfDeletion() != null && !r.getDateOfDeletion().isAfter(current)) continue;
-
-                count++;
-                weight += r.getWeight();
-            }
-
-            countByDay.put(current, count);
-            weightByDay.put(current, weight);
-
-            current = current.plusDays(1);
-        }
-
-        LocalDate dayMinCount = countByDay.entrySet().stream()
-                .min(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey).orElse(null);
-
-        LocalDate dayMaxCount = countByDay.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey).orElse(null);
-
-        LocalDate dayMinWeight = weightByDay.entrySet().stream()
-                .min(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey).orElse(null);
-
-        LocalDate dayMaxWeight = weightByDay.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey).orElse(null);
-
-        stats.setDayWithMinCount(dayMinCount);
-        stats.setDayWithMaxCount(dayMaxCount);
-        stats.setDayWithMinWeight(dayMinWeight);
-        stats.setDayWithMaxWeight(dayMaxWeight);
+    private void calculateMinMax(DailyOccupancy occupancy, LocalDate periodStart, LocalDate periodEnd,
+                                 RollStatisticsDTO stats) {
+        occupancy.applyTo(stats);
+        metrics.recordOccupancyDays(ChronoUnit.DAYS.between(periodStart, periodEnd) + 1);
     }
 }
@@ -0,0 +1,11 @@
+package com.warehouse.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface RollArchiveService {
+
+    long exportRolls(Path file) throws IOException;
+
+    long importRolls(Path file) throws IOException;
+}
@@ -0,0 +1,85 @@
+package com.warehouse.services;
+
+import com.warehouse.archive.RollArchiveReader;
+import com.warehouse.archive.RollArchiveWriter;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.repositories.MetalRollRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Dumps the roll table to a file and restores it, for backups and seeding environments. Both
+ * directions stream the rows, without loading the table into memory: the export reads them
+ * through a cursor straight into the file, and the import inserts them in JDBC batches,
+ * reusing one batch of entities.
+ */
+@Service
+public class RollArchiveServiceImpl implements RollArchiveService {
+
+    private static final int EXPORT_FETCH_SIZE = 10_000;
+
+    private static final int IMPORT_BATCH_SIZE = 10_000;
+
+    private final MetalRollRepository repository;
+
+    private final DailyInventoryService inventoryService;
+
+    public RollArchiveServiceImpl(MetalRollRepository repository, DailyInventoryService inventoryService) {
+        this.repository = repository;
+        this.inventoryService = inventoryService;
+    }
+
+    @Transactional(readOnly = true)
+    public long exportRolls(Path file) throws IOException {
+        try (RollArchiveWriter writer = new RollArchiveWriter(file)) {
+            try {
+                repository.forEachRow(EXPORT_FETCH_SIZE, writer::write);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+            return writer.count();
+        }
+    }
+
+    /**
+     * Loads a dump into an empty roll table in one transaction, keeping the ids of the rolls,
+     * and rebuilds the daily inventory from it. The change log is not written: consumers
+     * following it start over after a restore.
+     */
+    @Transactional
+    public long importRolls(Path file) throws IOException {
+        if (repository.count() > 0) {
+            throw new InvalidRollDataException("Rolls can only be imported into an empty table.");
+        }
+
+        try (RollArchiveReader reader = new RollArchiveReader(file)) {
+            MetalRoll[] batch = new MetalRoll[IMPORT_BATCH_SIZE];
+            Arrays.setAll(batch, i -> new MetalRoll());
+            int[] size = {0};
+            reader.forEach((id, length, weight, added, removed) -> {
+                MetalRoll roll = batch[size[0]++];
+                roll.setId(id);
+                roll.setLength(length);
+                roll.setWeight(weight);
+                roll.setDateAdded(added);
+                roll.setDateOfDeletion(removed);
+                if (size[0] == IMPORT_BATCH_SIZE) {
+                    repository.insertWithIds(Arrays.asList(batch));
+                    size[0] = 0;
+                }
+            });
+            repository.insertWithIds(Arrays.asList(batch).subList(0, size[0]));
+
+            repository.restartIdSequence();
+            inventoryService.rebuild();
+            return reader.count();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.warehouse.statistics;
+
+/**
+ * Sum of doubles with the exact rounding error of each addition (Knuth's two-sum) carried
+ * separately, so the result is close to the exact sum whatever the number and order of the
+ * values. Not thread-safe.
+ */
+public final class CompensatedSum {
+
+    private double sum;
+
+    private double compensation;
+
+    public void add(double value) {
+        add(value, 0.0);
+    }
+
+    public void add(CompensatedSum other) {
+        add(other.sum, other.compensation);
+    }
+
+    /** Adds a sum kept elsewhere as its rounded value and its error. */
+    public void add(double value, double error) {
+        double total = sum + value;
+        compensation += twoSumError(sum, value, total) + error;
+        sum = total;
+    }
+
+    public double value() {
+        return sum + compensation;
+    }
+
+    /** The rounding error of {@code total = a + b}, without a branch on the magnitudes. */
+    public static double twoSumError(double a, double b, double total) {
+        double bRounded = total - a;
+        return (a - (total - bRounded)) + (b - bRounded);
+    }
+}
@@ -0,0 +1,190 @@
+package com.warehouse.statistics;
+
+import com.warehouse.DTO.RollStatisticsDTO;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Number and total weight of rolls in stock for every day of a period, built from
+ * +1/-1 events at the day a roll was added and the day it was removed.
+ * A roll counts on day D when {@code dateAdded <= D < dateOfDeletion}.
+ */
+public class DailyOccupancy {
+
+    public static final long IN_STOCK = Long.MAX_VALUE;
+
+    private final LocalDate periodStart;
+
+    private final long firstDay;
+
+    private final int days;
+
+    private final long[] countDeltas;
+
+    private final double[] weightDeltas;
+
+    public DailyOccupancy(LocalDate periodStart, LocalDate periodEnd) {
+        this.periodStart = periodStart;
+        this.firstDay = periodStart.toEpochDay();
+        this.days = (int) (periodEnd.toEpochDay() - firstDay + 1);
+        this.countDeltas = new long[days];
+        this.weightDeltas = new double[days];
+    }
+
+    public void addRoll(LocalDate dateAdded, LocalDate dateOfDeletion, double weight) {
+        addRoll(dateAdded.toEpochDay(), dateOfDeletion == null ? IN_STOCK : dateOfDeletion.toEpochDay(), weight);
+    }
+
+    /**
+     * Same as {@link #addRoll(LocalDate, LocalDate, double)} with epoch days, where
+     * {@link #IN_STOCK} stands for a roll that has not been removed.
+     */
+    public void addRoll(long addedDay, long removedDay, double weight) {
+        long from = Math.max(addedDay - firstDay, 0);
+        if (from >= days) {
+            return;
+        }
+        long to = removedDay == IN_STOCK ? days : removedDay - firstDay;
+        if (to <= from) {
+            return;
+        }
+
+        countDeltas[(int) from]++;
+        weightDeltas[(int) from] += weight;
+        if (to < days) {
+            countDeltas[(int) to]--;
+            weightDeltas[(int) to] -= weight;
+        }
+    }
+
+    /**
+     * Adds an already aggregated change of a day. Changes before the period are carried into
+     * its first day, changes after it are ignored.
+     */
+    public void addDelta(LocalDate day, long rolls, double weight) {
+        long index = Math.max(day.toEpochDay() - firstDay, 0);
+        if (index >= days) {
+            return;
+        }
+        countDeltas[(int) index] += rolls;
+        weightDeltas[(int) index] += weight;
+    }
+
+    /**
+     * Fills the days with the minimum and maximum count and weight. Ties go to the day that
+     * the former {@code HashMap<LocalDate, ?>} based calculation reported first, i.e. the
+     * lowest hash bucket and then the earliest day, so clients see the same dates as before.
+     * <p>
+     * Counts are exact, so their days never change. Daily weights are a compensated running
+     * sum of the changes rather than a fresh sum of the rolls in stock, and may differ from
+     * the former totals in the last bits. Days whose totals were equal only up to rounding,
+     * as with weights like 0.1, can therefore be ordered differently, and another of those
+     * days may be reported. Reproducing the former doubles would need every day's rolls
+     * summed in the order the database returned them, which the daily inventory no longer has.
+     */
+    public void applyTo(RollStatisticsDTO stats) {
+        int capacity = hashMapCapacity(days);
+
+        long count = 0;
+        double weight = 0.0;
+        double compensation = 0.0;
+
+        int minCountDay = -1, maxCountDay = -1, minWeightDay = -1, maxWeightDay = -1;
+        int minCountBucket = 0, maxCountBucket = 0, minWeightBucket = 0, maxWeightBucket = 0;
+        long minCount = 0, maxCount = 0;
+        double minWeight = 0.0, maxWeight = 0.0;
+
+        int year = periodStart.getYear();
+        int month = periodStart.getMonthValue();
+        int dayOfMonth = periodStart.getDayOfMonth();
+        int monthLength = Month.of(month).length(Year.isLeap(year));
+
+        for (int i = 0; i < days; i++) {
+            count += countDeltas[i];
+
+            double dayWeight;
+            if (count == 0) {
+                weight = 0.0;
+                compensation = 0.0;
+                dayWeight = 0.0;
+            } else {
+                double delta = weightDeltas[i];
+                double sum = weight + delta;
+                if (Math.abs(weight) >= Math.abs(delta)) {
+                    compensation += (weight - sum) + delta;
+                } else {
+                    compensation += (delta - sum) + weight;
+                }
+                weight = sum;
+                dayWeight = weight + compensation;
+            }
+
+            int bucket = bucket(year, month, dayOfMonth, capacity);
+
+            if (i == 0) {
+                minCountDay = maxCountDay = minWeightDay = maxWeightDay = 0;
+                minCountBucket = maxCountBucket = minWeightBucket = maxWeightBucket = bucket;
+                minCount = maxCount = count;
+                minWeight = maxWeight = dayWeight;
+            } else {
+                if (count < minCount || (count == minCount && bucket < minCountBucket)) {
+                    minCount = count;
+                    minCountDay = i;
+                    minCountBucket = bucket;
+                }
+                if (count > maxCount || (count == maxCount && bucket < maxCountBucket)) {
+                    maxCount = count;
+                    maxCountDay = i;
+                    maxCountBucket = bucket;
+                }
+                int cmpMin = Double.compare(dayWeight, minWeight);
+                if (cmpMin < 0 || (cmpMin == 0 && bucket < minWeightBucket)) {
+                    minWeight = dayWeight;
+                    minWeightDay = i;
+                    minWeightBucket = bucket;
+                }
+                int cmpMax = Double.compare(dayWeight, maxWeight);
+                if (cmpMax > 0 || (cmpMax == 0 && bucket < maxWeightBucket)) {
+                    maxWeight = dayWeight;
+                    maxWeightDay = i;
+                    maxWeightBucket = bucket;
+                }
+            }
+
+            if (++dayOfMonth > monthLength) {
+                dayOfMonth = 1;
+                if (++month > 12) {
+                    month = 1;
+                    year++;
+                }
+                monthLength = Month.of(month).length(Year.isLeap(year));
+            }
+        }
+
+        stats.setDayWithMinCount(dayAt(minCountDay));
+        stats.setDayWithMaxCount(dayAt(maxCountDay));
+        stats.setDayWithMinWeight(dayAt(minWeightDay));
+        stats.setDayWithMaxWeight(dayAt(maxWeightDay));
+    }
+
+    private LocalDate dayAt(int index) {
+        return index < 0 ? null : LocalDate.ofEpochDay(firstDay + index);
+    }
+
+    // Table size of a HashMap after inserting n keys one by one with the default load factor.
+    private static int hashMapCapacity(int n) {
+        int capacity = 16;
+        while (n > capacity / 4 * 3) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Same as LocalDate.hashCode() spread by HashMap.hash(), without creating the LocalDate.
+    private static int bucket(int year, int month, int dayOfMonth, int capacity) {
+        int h = (year & 0xFFFFF800) ^ ((year << 11) + (month << 6) + dayOfMonth);
+        return (h ^ (h >>> 16)) & (capacity - 1);
+    }
+}
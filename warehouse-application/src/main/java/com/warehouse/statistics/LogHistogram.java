@@ -0,0 +1,108 @@
+package com.warehouse.statistics;
+
+/**
+ * Counts values in buckets whose bounds grow by a constant factor, so any quantile read from
+ * it is within {@link #RELATIVE_ACCURACY} of the exact one, whatever the number of values.
+ * Histograms merge by adding bucket counts, and can also subtract one that counts a subset
+ * of their values. Values at or below zero go to a separate zero bucket. Not thread-safe.
+ */
+public class LogHistogram {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    private long zeroCount;
+
+    private long total;
+
+    // counts[i] holds the values in (GAMMA^(offset + i - 1), GAMMA^(offset + i)]
+    private int offset;
+
+    private long[] counts = new long[0];
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    /** Adds the value {@code count} times; a negative count takes it out again. */
+    public void add(double value, long count) {
+        total += count;
+        if (value <= 0) {
+            zeroCount += count;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+        cover(index, index);
+        counts[index - offset] += count;
+    }
+
+    public void merge(LogHistogram other) {
+        merge(other, 1);
+    }
+
+    /** Takes out the values of a histogram that counts a subset of the values of this one. */
+    public void subtract(LogHistogram other) {
+        merge(other, -1);
+    }
+
+    public long count() {
+        return total;
+    }
+
+    /**
+     * The value at rank {@code ceil(q * count)} in ascending order, or {@code null} when the
+     * histogram is empty.
+     */
+    public Double quantile(double q) {
+        if (total <= 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = zeroCount;
+        if (seen >= rank) {
+            return 0.0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // the point of the bucket with the same relative distance to both bounds
+                return 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, offset + counts.length - 1) / (GAMMA + 1);
+    }
+
+    private void merge(LogHistogram other, long sign) {
+        total += sign * other.total;
+        zeroCount += sign * other.zeroCount;
+        if (other.counts.length == 0) {
+            return;
+        }
+        cover(other.offset, other.offset + other.counts.length - 1);
+        int shift = other.offset - offset;
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[shift + i] += sign * other.counts[i];
+        }
+    }
+
+    // Widens the buckets to include the indexes from..to.
+    private void cover(int from, int to) {
+        if (counts.length == 0) {
+            offset = from;
+            counts = new long[to - from + 1];
+            return;
+        }
+        int last = offset + counts.length - 1;
+        if (from >= offset && to <= last) {
+            return;
+        }
+        int newOffset = Math.min(offset, from);
+        long[] grown = new long[Math.max(last, to) - newOffset + 1];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        offset = newOffset;
+        counts = grown;
+    }
+}
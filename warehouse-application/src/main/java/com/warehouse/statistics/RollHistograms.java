@@ -0,0 +1,12 @@
+package com.warehouse.statistics;
+
+/**
+ * Length and weight of the rolls in stock at some point of a period, and the storage days of
+ * those of them that have been removed, the same rolls that period statistics cover.
+ */
+public record RollHistograms(LogHistogram lengths, LogHistogram weights, LogHistogram storageDays) {
+
+    public RollHistograms() {
+        this(new LogHistogram(), new LogHistogram(), new LogHistogram());
+    }
+}
@@ -0,0 +1,140 @@
+package com.warehouse.statistics;
+
+import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.DTO.StatisticsCacheStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of period statistics with a time to live. A write on some day changes
+ * the statistics of every period that ends on or after it, so only those entries are dropped.
+ */
+@Component
+public class StatisticsCache {
+
+    private record Period(LocalDate start, LocalDate end) {}
+
+    private record Entry(RollStatisticsDTO stats, long createdAt) {}
+
+    private final boolean enabled;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LinkedHashMap<Period, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Bumped by every invalidation, so a result computed before it is not stored after it.
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public StatisticsCache(@Value("${warehouse.stats-cache.enabled:true}") boolean enabled,
+                           @Value("${warehouse.stats-cache.max-size:256}") int maxSize,
+                           @Value("${warehouse.stats-cache.ttl:5m}") Duration ttl) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public RollStatisticsDTO get(LocalDate start, LocalDate end, Supplier<RollStatisticsDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Period period = new Period(start, end);
+        long observedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(period);
+            if (entry != null) {
+                if (System.nanoTime() - entry.createdAt() < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.stats();
+                }
+                entries.remove(period);
+                evictions.incrementAndGet();
+            }
+            observedGeneration = generation;
+        }
+
+        misses.incrementAndGet();
+        RollStatisticsDTO stats = loader.get();
+
+        synchronized (this) {
+            if (generation == observedGeneration) {
+                entries.put(period, new Entry(stats, System.nanoTime()));
+                evictOverflow();
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Drops the periods that a change made on {@code day} affects. Inside a transaction this
+     * happens after commit, so a concurrent reader cannot cache the state before the change.
+     */
+    public void invalidateFrom(LocalDate day) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(day);
+                }
+            });
+        } else {
+            invalidateNow(day);
+        }
+    }
+
+    public synchronized StatisticsCacheStatsDTO getStats() {
+        StatisticsCacheStatsDTO stats = new StatisticsCacheStatsDTO();
+        stats.setEnabled(enabled);
+        stats.setSize(entries.size());
+        stats.setHits(hits.get());
+        stats.setMisses(misses.get());
+        stats.setEvictions(evictions.get());
+        stats.setInvalidations(invalidations.get());
+        return stats;
+    }
+
+    private synchronized void invalidateNow(LocalDate day) {
+        generation++;
+        Iterator<Period> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            if (!it.next().end().isBefore(day)) {
+                it.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<Period, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.warehouse.statistics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of a statistics request. With virtual threads enabled each
+ * query starts right away on its own virtual thread, so the request waits for the slowest
+ * one instead of their sum. Otherwise a query runs on the caller's thread when its result is
+ * first needed, which also skips queries whose result turns out not to be needed.
+ * <p>
+ * Queries are forked in a {@link Scope} that the request closes before it returns, the way
+ * {@code StructuredTaskScope} confines subtasks: queries still running are cancelled and
+ * waited for, so none of them outlives the request or keeps a connection after it.
+ */
+@Component
+public class StatisticsQueryExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(StatisticsQueryExecutor.class);
+
+    private final Executor executor;
+
+    @Autowired
+    public StatisticsQueryExecutor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(virtualThreads ? virtualThreadExecutor() : null);
+    }
+
+    public StatisticsQueryExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public Scope open() {
+        return new Scope();
+    }
+
+    private static Executor virtualThreadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("statistics-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /** The queries of one request; must be closed on the thread that opened it. */
+    public final class Scope implements AutoCloseable {
+
+        private final List<Fork<?>> forks = new ArrayList<>();
+
+        private Scope() {}
+
+        /** Starts the query, or defers it to the first {@code get()} when there is no executor. */
+        public <T> Supplier<T> fork(Supplier<T> query) {
+            if (executor == null) {
+                return query;
+            }
+
+            Fork<T> fork = new Fork<>(query);
+            forks.add(fork);
+            executor.execute(fork);
+            return fork;
+        }
+
+        @Override
+        public void close() {
+            for (Fork<?> fork : forks) {
+                fork.task.cancel(true);
+            }
+            for (Fork<?> fork : forks) {
+                fork.awaitFinished();
+                // nobody asked for the result, so the failure would otherwise go unnoticed
+                if (!fork.read) {
+                    fork.failure().ifPresent(e -> log.warn("Statistics query failed after its result was no longer needed", e));
+                }
+            }
+        }
+    }
+
+    private static final class Fork<T> implements Runnable, Supplier<T> {
+
+        private final FutureTask<T> task;
+
+        // counted down when the query has returned, which for a cancelled one is later than cancel()
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private volatile boolean read;
+
+        private Fork(Supplier<T> query) {
+            this.task = new FutureTask<>(query::get);
+        }
+
+        @Override
+        public void run() {
+            try {
+                task.run();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        @Override
+        public T get() {
+            read = true;
+            try {
+                return task.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a statistics query", e);
+            }
+        }
+
+        private Optional<Throwable> failure() {
+            try {
+                task.get();
+                return Optional.empty();
+            } catch (ExecutionException e) {
+                return Optional.of(e.getCause());
+            } catch (CancellationException | InterruptedException e) {
+                return Optional.empty();
+            }
+        }
+
+        private void awaitFinished() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.warehouse.store;
+
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.entities.RollChangeType;
+import com.warehouse.projections.RollPeriodAggregate;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.specifications.MetalRollSpecification;
+import com.warehouse.statistics.DailyOccupancy;
+import com.warehouse.statistics.RollHistograms;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory columnar copy of the metalroll table for filters and statistics that would
+ * otherwise load every matching row as an entity. Loaded once at startup when
+ * {@code warehouse.roll-store.enabled} is set and kept current by the service's writes,
+ * which are applied after their transaction commits. Writes of other instances arrive
+ * through the roll change log, followed from the position the load started at, so they
+ * show up within the feed's poll interval. The log also repeats this instance's own writes;
+ * an addition already present is skipped, so a late one cannot undo a removal.
+ */
+@Component
+public class ColumnarRollStore implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarRollStore.class);
+
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 18;
+
+    private static final int AUTO = -1;
+
+    private final boolean enabled;
+
+    private final int parallelThreshold;
+
+    private final MetalRollRepository repository;
+
+    private final RollChangeFeed changeFeed;
+
+    // not read-only, so it runs on the primary: changes committed after the load starts are
+    // replayed onto the copy, and a lagging replica could miss some committed before it
+    private final TransactionTemplate loadTransaction;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RangeFilterKernel kernel = RangeFilterKernel.best();
+
+    private RollColumns columns;
+
+    // Changes committed while a load runs; replayed on top of it, since the load may have
+    // read the table before they committed.
+    private List<Consumer<RollColumns>> pending;
+
+    private volatile boolean ready;
+
+    private RollChangeFeed.Subscription subscription;
+
+    public ColumnarRollStore(boolean enabled, MetalRollRepository repository, RollChangeFeed changeFeed,
+                             PlatformTransactionManager transactionManager) {
+        this(enabled, AUTO, repository, changeFeed, transactionManager);
+    }
+
+    /**
+     * {@code parallelThreshold} is the number of rolls from which the statistics of a period
+     * are computed in parallel. When not set, it is {@value #DEFAULT_PARALLEL_THRESHOLD}, or
+     * never if the common fork-join pool has a single worker and the hand-off would only add
+     * to the time.
+     */
+    @Autowired
+    public ColumnarRollStore(@Value("${warehouse.roll-store.enabled:false}") boolean enabled,
+                             @Value("${warehouse.roll-store.parallel-threshold:" + AUTO + "}") int parallelThreshold,
+                             MetalRollRepository repository, RollChangeFeed changeFeed,
+                             PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        if (parallelThreshold == AUTO) {
+            parallelThreshold = ForkJoinPool.getCommonPoolParallelism() > 1
+                    ? DEFAULT_PARALLEL_THRESHOLD
+                    : Integer.MAX_VALUE;
+        }
+        this.parallelThreshold = parallelThreshold;
+        this.columns = new RollColumns(kernel, parallelThreshold);
+        this.repository = repository;
+        this.changeFeed = changeFeed;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Reads the whole table again, replaces the current copy with it and follows the log from there. */
+    public synchronized void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RollColumns loaded = new RollColumns(kernel, parallelThreshold);
+        long loggedUpTo;
+        try {
+            // changes logged after this position may or may not be in the rows read; replaying them is harmless
+            loggedUpTo = loadTransaction.execute(status -> {
+                long position = changeFeed.lastSeq();
+                repository.forEachRow(LOAD_FETCH_SIZE, loaded::put);
+                return position;
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(change -> change.accept(loaded));
+            pending = null;
+            columns = loaded;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        subscription = changeFeed.subscribe(loggedUpTo, RollChangeFeed.MAX_BATCH_SIZE, this::changesLogged);
+        log.info("Loaded {} rolls into the columnar store, filtering with {}", loaded.size(),
+                kernel.getClass().getSimpleName());
+    }
+
+    public void rollsAdded(List<MetalRoll> rolls) {
+        List<MetalRoll> copies = rolls.stream().map(r -> {
+            MetalRoll copy = new MetalRoll(r.getLength(), r.getWeight(), r.getDateAdded(), r.getDateOfDeletion());
+            copy.setId(r.getId());
+            return copy;
+        }).toList();
+        apply(columns -> copies.forEach(r ->
+                columns.put(r.getId(), r.getLength(), r.getWeight(), r.getDateAdded(), r.getDateOfDeletion())));
+    }
+
+    public void rollsRemoved(Collection<Integer> ids, LocalDate day) {
+        List<Integer> copies = List.copyOf(ids);
+        apply(columns -> copies.forEach(id -> columns.markRemoved(id, day)));
+    }
+
+    public List<MetalRollDTO> find(MetalRollSpecification spec) {
+        lock.readLock().lock();
+        try {
+            return columns.find(spec);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<MetalRollDTO> findActive(LocalDate periodStart, LocalDate periodEnd) {
+        lock.readLock().lock();
+        try {
+            return columns.findActive(periodStart, periodEnd);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RollPeriodAggregate aggregate(LocalDate periodStart, LocalDate periodEnd) {
+        lock.readLock().lock();
+        try {
+            return columns.aggregate(periodStart, periodEnd);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public DailyOccupancy occupancy(LocalDate periodStart, LocalDate periodEnd) {
+        lock.readLock().lock();
+        try {
+            return columns.occupancy(periodStart, periodEnd);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RollHistograms histograms(LocalDate periodStart, LocalDate periodEnd) {
+        lock.readLock().lock();
+        try {
+            return columns.histograms(periodStart, periodEnd);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs on the feed's thread; the write lock is only waited for while a query reads the copy.
+    private void changesLogged(List<RollChangeDTO> changes) {
+        applyNow(columns -> changes.forEach(change -> {
+            MetalRollDTO roll = change.getRoll();
+            if (change.getType() == RollChangeType.REMOVED && columns.contains(roll.getId())) {
+                columns.markRemoved(roll.getId(), roll.getDateOfDeletion());
+            } else if (!columns.contains(roll.getId())) {
+                columns.put(roll.getId(), roll.getLength(), roll.getWeight(), roll.getDateAdded(),
+                        roll.getDateOfDeletion());
+            }
+        }));
+    }
+
+    private void apply(Consumer<RollColumns> change) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyNow(change);
+                }
+            });
+        } else {
+            applyNow(change);
+        }
+    }
+
+    private void applyNow(Consumer<RollColumns> change) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(change);
+            }
+            if (ready) {
+                change.accept(columns);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.warehouse.store;
+
+import com.warehouse.statistics.LogHistogram;
+import com.warehouse.statistics.RollHistograms;
+
+import java.util.TreeMap;
+
+/**
+ * Histograms of the rolls added and removed on each day, merged into those of a period on
+ * request. The rolls in stock at some point of {@code [start, end]} are the ones added up to
+ * {@code end} minus the ones removed before {@code start}; the removed ones among them are
+ * the ones removed from {@code start} on minus the ones added after {@code end}. Not
+ * thread-safe.
+ */
+class DailyHistograms {
+
+    private static final class Day {
+
+        final LogHistogram addedLengths = new LogHistogram();
+
+        final LogHistogram addedWeights = new LogHistogram();
+
+        final LogHistogram removedLengths = new LogHistogram();
+
+        final LogHistogram removedWeights = new LogHistogram();
+
+        // storage days of removed rolls, once by their removal day and once by their added day
+        final LogHistogram storageByRemoval = new LogHistogram();
+
+        final LogHistogram storageByAdded = new LogHistogram();
+    }
+
+    private final TreeMap<Integer, Day> days = new TreeMap<>();
+
+    void addRoll(int addedDay, int removedDay, double length, double weight) {
+        change(addedDay, removedDay, length, weight, 1);
+    }
+
+    void removeRoll(int addedDay, int removedDay, double length, double weight) {
+        change(addedDay, removedDay, length, weight, -1);
+    }
+
+    RollHistograms period(int start, int end) {
+        RollHistograms period = new RollHistograms();
+        for (Day day : days.headMap(end, true).values()) {
+            period.lengths().merge(day.addedLengths);
+            period.weights().merge(day.addedWeights);
+        }
+        for (Day day : days.headMap(start, false).values()) {
+            period.lengths().subtract(day.removedLengths);
+            period.weights().subtract(day.removedWeights);
+        }
+        for (Day day : days.tailMap(start, true).values()) {
+            period.storageDays().merge(day.storageByRemoval);
+        }
+        for (Day day : days.tailMap(end, false).values()) {
+            period.storageDays().subtract(day.storageByAdded);
+        }
+        return period;
+    }
+
+    private void change(int addedDay, int removedDay, double length, double weight, long count) {
+        Day added = days.computeIfAbsent(addedDay, d -> new Day());
+        added.addedLengths.add(length, count);
+        added.addedWeights.add(weight, count);
+        if (removedDay == RollColumns.IN_STOCK) {
+            return;
+        }
+
+        Day removed = days.computeIfAbsent(removedDay, d -> new Day());
+        removed.removedLengths.add(length, count);
+        removed.removedWeights.add(weight, count);
+        long storage = (long) removedDay - addedDay;
+        removed.storageByRemoval.add(storage, count);
+        added.storageByAdded.add(storage, count);
+    }
+}
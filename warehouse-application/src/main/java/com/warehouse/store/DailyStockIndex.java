@@ -0,0 +1,126 @@
+package com.warehouse.store;
+
+import com.warehouse.statistics.DailyOccupancy;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Per-day changes of the stock count and weight over epoch days, with Fenwick trees over them
+ * so the stock on any day is a prefix sum found in {@code O(log days)}. Counts rolls the way
+ * {@link DailyOccupancy} does: from the day a roll is added up to the day before its removal.
+ * The covered days grow as needed. Not thread-safe.
+ */
+class DailyStockIndex {
+
+    private int firstDay;
+
+    private int days;
+
+    private long[] countDeltas = new long[0];
+
+    private double[] weightDeltas = new double[0];
+
+    private long[] countTree = new long[0];
+
+    private double[] weightTree = new double[0];
+
+    void addRoll(int addedDay, int removedDay, double weight) {
+        add(addedDay, 1, weight);
+        if (removedDay != RollColumns.IN_STOCK) {
+            add(removedDay, -1, -weight);
+        }
+    }
+
+    void removeRoll(int addedDay, int removedDay, double weight) {
+        add(addedDay, -1, -weight);
+        if (removedDay != RollColumns.IN_STOCK) {
+            add(removedDay, 1, weight);
+        }
+    }
+
+    /** Number of rolls in stock on the day. */
+    long countOn(int day) {
+        int index = Math.min(day - firstDay, days - 1);
+        long sum = 0;
+        for (int i = index; i >= 0; i = (i & (i + 1)) - 1) {
+            sum += countTree[i];
+        }
+        return sum;
+    }
+
+    /** Total weight of the rolls in stock on the day. */
+    double weightOn(int day) {
+        int index = Math.min(day - firstDay, days - 1);
+        double sum = 0.0;
+        for (int i = index; i >= 0; i = (i & (i + 1)) - 1) {
+            sum += weightTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Same occupancy as adding every roll to {@link DailyOccupancy}, but built from the stock
+     * before the period and the changes of its days, without visiting the rolls.
+     */
+    DailyOccupancy occupancy(LocalDate periodStart, LocalDate periodEnd) {
+        DailyOccupancy occupancy = new DailyOccupancy(periodStart, periodEnd);
+        int start = Math.toIntExact(periodStart.toEpochDay());
+        int end = Math.toIntExact(periodEnd.toEpochDay());
+
+        occupancy.addDelta(periodStart, countOn(start - 1), weightOn(start - 1));
+        for (int day = Math.max(start, firstDay); day <= end && day - firstDay < days; day++) {
+            int i = day - firstDay;
+            if (countDeltas[i] != 0 || weightDeltas[i] != 0.0) {
+                occupancy.addDelta(LocalDate.ofEpochDay(day), countDeltas[i], weightDeltas[i]);
+            }
+        }
+        return occupancy;
+    }
+
+    private void add(int day, long count, double weight) {
+        cover(day);
+        int index = day - firstDay;
+        countDeltas[index] += count;
+        weightDeltas[index] += weight;
+        for (int i = index; i < days; i |= i + 1) {
+            countTree[i] += count;
+            weightTree[i] += weight;
+        }
+    }
+
+    // Widens the covered days to include the day and rebuilds the trees from the deltas.
+    private void cover(int day) {
+        if (days > 0 && day >= firstDay && day - firstDay < days) {
+            return;
+        }
+        int newFirst = days == 0 ? day : Math.min(firstDay, day);
+        int newLast = days == 0 ? day : Math.max(firstDay + days - 1, day);
+        int newDays = Math.max(newLast - newFirst + 1, Math.max(days + (days >> 1), 64));
+        // keep room on the side that grew, new rolls are added on the latest days
+        if (day < firstDay && days > 0) {
+            newFirst = newLast - newDays + 1;
+        }
+
+        long[] counts = new long[newDays];
+        double[] weights = new double[newDays];
+        if (days > 0) {
+            System.arraycopy(countDeltas, 0, counts, firstDay - newFirst, days);
+            System.arraycopy(weightDeltas, 0, weights, firstDay - newFirst, days);
+        }
+        firstDay = newFirst;
+        days = newDays;
+        countDeltas = counts;
+        weightDeltas = weights;
+
+        countTree = Arrays.copyOf(counts, newDays);
+        weightTree = Arrays.copyOf(weights, newDays);
+        for (int i = 0; i < newDays; i++) {
+            int parent = i | (i + 1);
+            if (parent < newDays) {
+                countTree[parent] += countTree[i];
+                weightTree[parent] += weightTree[i];
+            }
+        }
+    }
+}
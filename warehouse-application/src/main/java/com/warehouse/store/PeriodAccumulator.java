@@ -0,0 +1,124 @@
+package com.warehouse.store;
+
+import com.warehouse.projections.RollPeriodAggregate;
+import com.warehouse.statistics.CompensatedSum;
+
+/**
+ * Running figures of {@link RollPeriodAggregate} over part of the rolls. Two accumulators over
+ * adjacent parts merge into the figures of both. Not thread-safe.
+ */
+class PeriodAccumulator {
+
+    private long added;
+
+    private long removed;
+
+    private long active;
+
+    private final CompensatedSum lengthSum = new CompensatedSum();
+
+    private double minLength = Double.POSITIVE_INFINITY;
+
+    private double maxLength = Double.NEGATIVE_INFINITY;
+
+    private final CompensatedSum weightSum = new CompensatedSum();
+
+    private double minWeight = Double.POSITIVE_INFINITY;
+
+    private double maxWeight = Double.NEGATIVE_INFINITY;
+
+    private long minInterval = Long.MAX_VALUE;
+
+    private long maxInterval = Long.MIN_VALUE;
+
+    /** Adds the rolls {@code from..to-1} that were in stock at some point of {@code [start, end]}. */
+    void scan(double[] lengths, double[] weights, int[] addedDays, int[] removedDays, int from, int to,
+              int start, int end) {
+        // locals rather than fields, so the loop keeps them in registers
+        long added = 0;
+        long removed = 0;
+        long active = 0;
+        double lengthSum = 0.0;
+        double lengthError = 0.0;
+        double minLength = Double.POSITIVE_INFINITY;
+        double maxLength = Double.NEGATIVE_INFINITY;
+        double weightSum = 0.0;
+        double weightError = 0.0;
+        double minWeight = Double.POSITIVE_INFINITY;
+        double maxWeight = Double.NEGATIVE_INFINITY;
+        long minInterval = Long.MAX_VALUE;
+        long maxInterval = Long.MIN_VALUE;
+
+        for (int i = from; i < to; i++) {
+            int addedDay = addedDays[i];
+            int removedDay = removedDays[i];
+            if (addedDay > end || removedDay < start) {
+                continue;
+            }
+            active++;
+            if (addedDay >= start) {
+                added++;
+            }
+            double length = lengths[i];
+            double lengthTotal = lengthSum + length;
+            lengthError += CompensatedSum.twoSumError(lengthSum, length, lengthTotal);
+            lengthSum = lengthTotal;
+            minLength = Math.min(minLength, length);
+            maxLength = Math.max(maxLength, length);
+            double weight = weights[i];
+            double weightTotal = weightSum + weight;
+            weightError += CompensatedSum.twoSumError(weightSum, weight, weightTotal);
+            weightSum = weightTotal;
+            minWeight = Math.min(minWeight, weight);
+            maxWeight = Math.max(maxWeight, weight);
+            if (removedDay != RollColumns.IN_STOCK) {
+                if (removedDay <= end) {
+                    removed++;
+                }
+                long interval = (long) removedDay - addedDay;
+                minInterval = Math.min(minInterval, interval);
+                maxInterval = Math.max(maxInterval, interval);
+            }
+        }
+
+        this.added += added;
+        this.removed += removed;
+        this.active += active;
+        this.lengthSum.add(lengthSum, lengthError);
+        this.minLength = Math.min(this.minLength, minLength);
+        this.maxLength = Math.max(this.maxLength, maxLength);
+        this.weightSum.add(weightSum, weightError);
+        this.minWeight = Math.min(this.minWeight, minWeight);
+        this.maxWeight = Math.max(this.maxWeight, maxWeight);
+        this.minInterval = Math.min(this.minInterval, minInterval);
+        this.maxInterval = Math.max(this.maxInterval, maxInterval);
+    }
+
+    /** Adds the figures of the rolls right after those of this accumulator. */
+    PeriodAccumulator merge(PeriodAccumulator next) {
+        added += next.added;
+        removed += next.removed;
+        active += next.active;
+        lengthSum.add(next.lengthSum);
+        minLength = Math.min(minLength, next.minLength);
+        maxLength = Math.max(maxLength, next.maxLength);
+        weightSum.add(next.weightSum);
+        minWeight = Math.min(minWeight, next.minWeight);
+        maxWeight = Math.max(maxWeight, next.maxWeight);
+        minInterval = Math.min(minInterval, next.minInterval);
+        maxInterval = Math.max(maxInterval, next.maxInterval);
+        return this;
+    }
+
+    RollPeriodAggregate toAggregate() {
+        if (active == 0) {
+            return new RollPeriodAggregate(0L, 0L, 0L, null, null, null, null, null, null, null, null, null);
+        }
+        boolean anyRemoved = maxInterval != Long.MIN_VALUE;
+        double totalWeight = weightSum.value();
+        return new RollPeriodAggregate(added, removed, active,
+                lengthSum.value() / active, minLength, maxLength,
+                totalWeight / active, minWeight, maxWeight, totalWeight,
+                anyRemoved ? minInterval : null, anyRemoved ? maxInterval : null);
+    }
+}
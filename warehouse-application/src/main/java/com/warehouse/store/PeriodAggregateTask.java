@@ -0,0 +1,79 @@
+package com.warehouse.store;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Accumulates the rolls of a period over fixed chunks of the columns, halving the chunk range
+ * until one chunk is left and merging the halves in order. The chunks and the merge tree depend
+ * only on the number of rolls, so the result is the same to the last bit whether the halves
+ * run in parallel on a fork-join pool or one after the other on the calling thread.
+ */
+class PeriodAggregateTask extends RecursiveTask<PeriodAccumulator> {
+
+    static final int CHUNK_SIZE = 1 << 14;
+
+    private final double[] lengths;
+
+    private final double[] weights;
+
+    private final int[] addedDays;
+
+    private final int[] removedDays;
+
+    private final int size;
+
+    private final int start;
+
+    private final int end;
+
+    private final int firstChunk;
+
+    private final int lastChunk;
+
+    private final boolean parallel;
+
+    PeriodAggregateTask(double[] lengths, double[] weights, int[] addedDays, int[] removedDays, int size,
+                        int start, int end, boolean parallel) {
+        this(lengths, weights, addedDays, removedDays, size, start, end,
+                0, Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE), parallel);
+    }
+
+    private PeriodAggregateTask(double[] lengths, double[] weights, int[] addedDays, int[] removedDays, int size,
+                                int start, int end, int firstChunk, int lastChunk, boolean parallel) {
+        this.lengths = lengths;
+        this.weights = weights;
+        this.addedDays = addedDays;
+        this.removedDays = removedDays;
+        this.size = size;
+        this.start = start;
+        this.end = end;
+        this.firstChunk = firstChunk;
+        this.lastChunk = lastChunk;
+        this.parallel = parallel;
+    }
+
+    @Override
+    protected PeriodAccumulator compute() {
+        if (lastChunk - firstChunk == 1) {
+            PeriodAccumulator accumulator = new PeriodAccumulator();
+            int from = firstChunk * CHUNK_SIZE;
+            accumulator.scan(lengths, weights, addedDays, removedDays, from, Math.min(size, from + CHUNK_SIZE),
+                    start, end);
+            return accumulator;
+        }
+
+        int middle = (firstChunk + lastChunk) >>> 1;
+        PeriodAggregateTask left = half(firstChunk, middle);
+        PeriodAggregateTask right = half(middle, lastChunk);
+        if (parallel) {
+            right.fork();
+            return left.compute().merge(right.join());
+        }
+        return left.compute().merge(right.compute());
+    }
+
+    private PeriodAggregateTask half(int first, int last) {
+        return new PeriodAggregateTask(lengths, weights, addedDays, removedDays, size, start, end, first, last,
+                parallel);
+    }
+}
@@ -0,0 +1,33 @@
+package com.warehouse.store;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the rows of a column block that fall into all ranges at once.
+ */
+public interface RangeFilterKernel {
+
+    /**
+     * Writes the indexes of the rows in {@code [from, to)} that match {@code ranges} into
+     * {@code selection}, in ascending order, and returns how many there are.
+     * {@code selection} must have room for {@code to - from} indexes.
+     */
+    int select(double[] lengths, double[] weights, int[] addedDays, int[] removedDays,
+               int from, int to, RollRanges ranges, int[] selection);
+
+    /**
+     * The vectorized kernel when the JVM runs with {@code --add-modules jdk.incubator.vector},
+     * the scalar one otherwise.
+     */
+    static RangeFilterKernel best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return new VectorRangeFilterKernel();
+            } catch (LinkageError e) {
+                LoggerFactory.getLogger(RangeFilterKernel.class)
+                        .warn("Vector API is not usable, falling back to the scalar filter", e);
+            }
+        }
+        return new ScalarRangeFilterKernel();
+    }
+}
@@ -0,0 +1,238 @@
+package com.warehouse.store;
+
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.projections.RollPeriodAggregate;
+import com.warehouse.specifications.MetalRollSpecification;
+import com.warehouse.statistics.DailyOccupancy;
+import com.warehouse.statistics.RollHistograms;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The metalroll table as one primitive array per column, ordered by id. Dates are epoch days
+ * and a roll still in stock has {@link #IN_STOCK} as its removal day, so the range checks
+ * need no special case for it. The storage intervals are also indexed by day, for queries
+ * about a period that should not scan every roll. Not thread-safe.
+ * <p>
+ * The columns are heap arrays rather than off-heap segments: they are a cache rebuilt at
+ * startup, grown by copying as rolls are added, and loaded by the vector kernel straight from
+ * the arrays, so the garbage collector can own them and nothing has to be freed by hand.
+ */
+class RollColumns {
+
+    static final int IN_STOCK = Integer.MAX_VALUE;
+
+    private static final int BLOCK_SIZE = 4096;
+
+    private final RangeFilterKernel kernel;
+
+    private final int parallelThreshold;
+
+    private int size;
+
+    private int[] ids = new int[1024];
+
+    private double[] lengths = new double[1024];
+
+    private double[] weights = new double[1024];
+
+    private int[] addedDays = new int[1024];
+
+    private int[] removedDays = new int[1024];
+
+    private final RollIntervalTree intervals = new RollIntervalTree();
+
+    private final DailyStockIndex stock = new DailyStockIndex();
+
+    private final DailyHistograms histograms = new DailyHistograms();
+
+    RollColumns(RangeFilterKernel kernel, int parallelThreshold) {
+        this.kernel = kernel;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    /** Inserts the roll, or overwrites it if its id is already present. */
+    void put(int id, double length, double weight, LocalDate dateAdded, LocalDate dateOfDeletion) {
+        int index = size == 0 || id > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+        if (index < 0) {
+            index = -index - 1;
+            ensureCapacity(size + 1);
+            int tail = size - index;
+            if (tail > 0) {
+                System.arraycopy(ids, index, ids, index + 1, tail);
+                System.arraycopy(lengths, index, lengths, index + 1, tail);
+                System.arraycopy(weights, index, weights, index + 1, tail);
+                System.arraycopy(addedDays, index, addedDays, index + 1, tail);
+                System.arraycopy(removedDays, index, removedDays, index + 1, tail);
+            }
+            size++;
+        } else {
+            intervals.remove(id, addedDays[index], removedDays[index]);
+            stock.removeRoll(addedDays[index], removedDays[index], weights[index]);
+            histograms.removeRoll(addedDays[index], removedDays[index], lengths[index], weights[index]);
+        }
+        ids[index] = id;
+        lengths[index] = length;
+        weights[index] = weight;
+        addedDays[index] = toDay(dateAdded);
+        removedDays[index] = toDay(dateOfDeletion);
+        intervals.insert(id, addedDays[index], removedDays[index]);
+        stock.addRoll(addedDays[index], removedDays[index], weight);
+        histograms.addRoll(addedDays[index], removedDays[index], length, weight);
+    }
+
+    void markRemoved(int id, LocalDate day) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            stock.removeRoll(addedDays[index], removedDays[index], weights[index]);
+            histograms.removeRoll(addedDays[index], removedDays[index], lengths[index], weights[index]);
+            intervals.updateEnd(id, addedDays[index], removedDays[index], toDay(day));
+            removedDays[index] = toDay(day);
+            stock.addRoll(addedDays[index], removedDays[index], weights[index]);
+            histograms.addRoll(addedDays[index], removedDays[index], lengths[index], weights[index]);
+        }
+    }
+
+    /**
+     * Rolls that were in stock at some point of the period, in id order. Same rolls as
+     * {@code MetalRollRepository.findActiveInPeriod}.
+     */
+    List<MetalRollDTO> findActive(LocalDate periodStart, LocalDate periodEnd) {
+        IntList matched = new IntList();
+        intervals.forEachOverlapping(toDay(periodStart), toDay(periodEnd), matched::add);
+        int[] matchedIds = matched.sorted();
+
+        List<MetalRollDTO> result = new ArrayList<>(matchedIds.length);
+        for (int id : matchedIds) {
+            result.add(toDTO(Arrays.binarySearch(ids, 0, size, id)));
+        }
+        return result;
+    }
+
+    List<MetalRollDTO> find(MetalRollSpecification spec) {
+        int from = 0;
+        int to = size;
+        if (spec.getIdFrom() != null) {
+            from = lowerBound(spec.getIdFrom());
+            to = upperBound(spec.getIdTo());
+        }
+        if (spec.getAfterId() != null) {
+            from = Math.max(from, upperBound(spec.getAfterId()));
+        }
+
+        RollRanges ranges = toRanges(spec);
+        int[] selection = new int[Math.min(BLOCK_SIZE, Math.max(to - from, 0))];
+        List<MetalRollDTO> result = new ArrayList<>();
+        for (int block = from; block < to; block += BLOCK_SIZE) {
+            int count = kernel.select(lengths, weights, addedDays, removedDays,
+                    block, Math.min(block + BLOCK_SIZE, to), ranges, selection);
+            for (int k = 0; k < count; k++) {
+                result.add(toDTO(selection[k]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Same figures as {@code MetalRollRepository.aggregateInPeriod}. From
+     * {@code parallelThreshold} rolls on, chunks of the columns are scanned in parallel on the
+     * common fork-join pool, with the same result as scanning them on the calling thread.
+     */
+    RollPeriodAggregate aggregate(LocalDate periodStart, LocalDate periodEnd) {
+        boolean parallel = size >= parallelThreshold;
+        PeriodAggregateTask task = new PeriodAggregateTask(lengths, weights, addedDays, removedDays, size,
+                toDay(periodStart), toDay(periodEnd), parallel);
+        PeriodAccumulator total = parallel ? ForkJoinPool.commonPool().invoke(task) : task.compute();
+        return total.toAggregate();
+    }
+
+    DailyOccupancy occupancy(LocalDate periodStart, LocalDate periodEnd) {
+        return stock.occupancy(periodStart, periodEnd);
+    }
+
+    RollHistograms histograms(LocalDate periodStart, LocalDate periodEnd) {
+        return histograms.period(toDay(periodStart), toDay(periodEnd));
+    }
+
+    private static RollRanges toRanges(MetalRollSpecification spec) {
+        RollRanges all = RollRanges.ALL;
+        int removedFrom = spec.getRemovedFrom() != null ? toDay(spec.getRemovedFrom()) : all.removedFrom();
+        int removedTo = spec.getRemovedFrom() != null ? toDay(spec.getRemovedTo()) : all.removedTo();
+        if (spec.isActiveOnly()) {
+            removedFrom = IN_STOCK;
+        }
+        return new RollRanges(
+                spec.getLengthFrom() != null ? spec.getLengthFrom() : all.lengthFrom(),
+                spec.getLengthFrom() != null ? spec.getLengthTo() : all.lengthTo(),
+                spec.getWeightFrom() != null ? spec.getWeightFrom() : all.weightFrom(),
+                spec.getWeightFrom() != null ? spec.getWeightTo() : all.weightTo(),
+                spec.getAddedFrom() != null ? toDay(spec.getAddedFrom()) : all.addedFrom(),
+                spec.getAddedFrom() != null ? toDay(spec.getAddedTo()) : all.addedTo(),
+                removedFrom, removedTo);
+    }
+
+    private MetalRollDTO toDTO(int i) {
+        return new MetalRollDTO(ids[i], lengths[i], weights[i], LocalDate.ofEpochDay(addedDays[i]),
+                removedDays[i] == IN_STOCK ? null : LocalDate.ofEpochDay(removedDays[i]));
+    }
+
+    // index of the first roll with an id not below the given one
+    private int lowerBound(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // index of the first roll with an id above the given one
+    private int upperBound(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        lengths = Arrays.copyOf(lengths, grown);
+        weights = Arrays.copyOf(weights, grown);
+        addedDays = Arrays.copyOf(addedDays, grown);
+        removedDays = Arrays.copyOf(removedDays, grown);
+    }
+
+    private static final class IntList {
+
+        private int[] values = new int[64];
+
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int[] sorted() {
+            int[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+
+    private static int toDay(LocalDate date) {
+        return date == null ? IN_STOCK : Math.toIntExact(date.toEpochDay());
+    }
+}
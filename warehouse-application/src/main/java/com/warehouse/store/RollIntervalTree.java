@@ -0,0 +1,231 @@
+package com.warehouse.store;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Storage intervals {@code [addedDay, removedDay]} of the rolls in treaps ordered by added day
+ * and id, where every node also holds the latest removal day of its subtree. A search skips
+ * the subtrees that all end before the period, so finding the k rolls that overlap it takes
+ * about {@code O(log n + k)} steps. Rolls still in stock have their own treap: their intervals
+ * never end, and mixed with the others they would leave no subtree to skip. Nodes live in
+ * parallel arrays, not as objects. Not thread-safe.
+ */
+class RollIntervalTree {
+
+    private static final int NIL = -1;
+
+    private final SplittableRandom random = new SplittableRandom(17);
+
+    // rolls with a removal day
+    private int closedRoot = NIL;
+
+    // rolls in stock, all ending at RollColumns.IN_STOCK
+    private int openRoot = NIL;
+
+    private int nodes;
+
+    // released node slots, chained through left
+    private int free = NIL;
+
+    private int[] ids = new int[1024];
+
+    private int[] starts = new int[1024];
+
+    private int[] ends = new int[1024];
+
+    private int[] maxEnds = new int[1024];
+
+    private int[] priorities = new int[1024];
+
+    private int[] left = new int[1024];
+
+    private int[] right = new int[1024];
+
+    void insert(int id, int start, int end) {
+        int node = allocate(id, start, end);
+        if (end == RollColumns.IN_STOCK) {
+            openRoot = insert(openRoot, node);
+        } else {
+            closedRoot = insert(closedRoot, node);
+        }
+    }
+
+    void remove(int id, int start, int end) {
+        if (end == RollColumns.IN_STOCK) {
+            openRoot = removeNode(openRoot, id, start);
+        } else {
+            closedRoot = removeNode(closedRoot, id, start);
+        }
+    }
+
+    /** Changes the end of the interval of the roll added on {@code start}. */
+    void updateEnd(int id, int start, int oldEnd, int newEnd) {
+        if (oldEnd != RollColumns.IN_STOCK && newEnd != RollColumns.IN_STOCK) {
+            updateNodeEnd(closedRoot, id, start, newEnd);
+        } else {
+            remove(id, start, oldEnd);
+            insert(id, start, newEnd);
+        }
+    }
+
+    /** Passes the ids of the rolls with {@code start <= to} and {@code end >= from}. */
+    void forEachOverlapping(int from, int to, IntConsumer action) {
+        forEachOverlapping(closedRoot, from, to, action);
+        forEachOverlapping(openRoot, from, to, action);
+    }
+
+    private int insert(int node, int inserted) {
+        if (node == NIL) {
+            return inserted;
+        }
+        if (compare(ids[inserted], starts[inserted], node) < 0) {
+            left[node] = insert(left[node], inserted);
+            if (priorities[left[node]] > priorities[node]) {
+                node = rotateRight(node);
+            }
+        } else {
+            right[node] = insert(right[node], inserted);
+            if (priorities[right[node]] > priorities[node]) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private int removeNode(int node, int id, int start) {
+        if (node == NIL) {
+            return NIL;
+        }
+        int cmp = compare(id, start, node);
+        if (cmp < 0) {
+            left[node] = removeNode(left[node], id, start);
+        } else if (cmp > 0) {
+            right[node] = removeNode(right[node], id, start);
+        } else {
+            int merged = merge(left[node], right[node]);
+            release(node);
+            return merged;
+        }
+        update(node);
+        return node;
+    }
+
+    private void updateNodeEnd(int node, int id, int start, int end) {
+        if (node == NIL) {
+            return;
+        }
+        int cmp = compare(id, start, node);
+        if (cmp < 0) {
+            updateNodeEnd(left[node], id, start, end);
+        } else if (cmp > 0) {
+            updateNodeEnd(right[node], id, start, end);
+        } else {
+            ends[node] = end;
+        }
+        update(node);
+    }
+
+    private void forEachOverlapping(int node, int from, int to, IntConsumer action) {
+        if (node == NIL || maxEnds[node] < from) {
+            return;
+        }
+        forEachOverlapping(left[node], from, to, action);
+        if (starts[node] > to) {
+            return;
+        }
+        if (ends[node] >= from) {
+            action.accept(ids[node]);
+        }
+        forEachOverlapping(right[node], from, to, action);
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priorities[a] > priorities[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        update(node);
+        return pivot;
+    }
+
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        update(node);
+        return pivot;
+    }
+
+    private void update(int node) {
+        int max = ends[node];
+        if (left[node] != NIL) {
+            max = Math.max(max, maxEnds[left[node]]);
+        }
+        if (right[node] != NIL) {
+            max = Math.max(max, maxEnds[right[node]]);
+        }
+        maxEnds[node] = max;
+    }
+
+    private int compare(int id, int start, int node) {
+        int cmp = Integer.compare(start, starts[node]);
+        return cmp != 0 ? cmp : Integer.compare(id, ids[node]);
+    }
+
+    private int allocate(int id, int start, int end) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            ensureCapacity(nodes + 1);
+            node = nodes++;
+        }
+        ids[node] = id;
+        starts[node] = start;
+        ends[node] = end;
+        maxEnds[node] = end;
+        priorities[node] = random.nextInt();
+        left[node] = NIL;
+        right[node] = NIL;
+        return node;
+    }
+
+    private void release(int node) {
+        left[node] = free;
+        free = node;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int grown = Math.max(capacity, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, grown);
+        starts = Arrays.copyOf(starts, grown);
+        ends = Arrays.copyOf(ends, grown);
+        maxEnds = Arrays.copyOf(maxEnds, grown);
+        priorities = Arrays.copyOf(priorities, grown);
+        left = Arrays.copyOf(left, grown);
+        right = Arrays.copyOf(right, grown);
+    }
+}
@@ -0,0 +1,17 @@
+package com.warehouse.store;
+
+/**
+ * Inclusive bounds on the length, weight, added and removed columns. A column without a
+ * filter gets bounds that every value satisfies, so a kernel checks all four in one pass.
+ */
+public record RollRanges(double lengthFrom, double lengthTo,
+                         double weightFrom, double weightTo,
+                         int addedFrom, int addedTo,
+                         int removedFrom, int removedTo) {
+
+    public static final RollRanges ALL = new RollRanges(
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+            Integer.MIN_VALUE, Integer.MAX_VALUE,
+            Integer.MIN_VALUE, Integer.MAX_VALUE);
+}
@@ -0,0 +1,33 @@
+package com.warehouse.store;
+
+public final class ScalarRangeFilterKernel implements RangeFilterKernel {
+
+    @Override
+    public int select(double[] lengths, double[] weights, int[] addedDays, int[] removedDays,
+                      int from, int to, RollRanges ranges, int[] selection) {
+        return selectRange(lengths, weights, addedDays, removedDays, from, to, ranges, selection, 0);
+    }
+
+    // Non-short-circuit '&' and an unconditional store keep the loop free of data-dependent branches.
+    static int selectRange(double[] lengths, double[] weights, int[] addedDays, int[] removedDays,
+                           int from, int to, RollRanges ranges, int[] selection, int count) {
+        double lengthFrom = ranges.lengthFrom();
+        double lengthTo = ranges.lengthTo();
+        double weightFrom = ranges.weightFrom();
+        double weightTo = ranges.weightTo();
+        int addedFrom = ranges.addedFrom();
+        int addedTo = ranges.addedTo();
+        int removedFrom = ranges.removedFrom();
+        int removedTo = ranges.removedTo();
+
+        for (int i = from; i < to; i++) {
+            boolean match = lengths[i] >= lengthFrom & lengths[i] <= lengthTo
+                    & weights[i] >= weightFrom & weights[i] <= weightTo
+                    & addedDays[i] >= addedFrom & addedDays[i] <= addedTo
+                    & removedDays[i] >= removedFrom & removedDays[i] <= removedTo;
+            selection[count] = i;
+            count += match ? 1 : 0;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,85 @@
+package com.warehouse.store;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Filters in two passes: the comparisons run a full vector of rows per step and store a 0/1
+ * flag per row, then a scalar loop collects the rows flagged in both flag arrays. Turning a
+ * mask into flags with {@code blend} keeps to compares and blends, which C2 compiles to
+ * vector instructions on every platform with a preferred species; reading a mask's bits with
+ * {@code toLong()} is only intrinsified on some of them and otherwise boxes the mask per step.
+ */
+public final class VectorRangeFilterKernel implements RangeFilterKernel {
+
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+
+    private static final class Flags {
+
+        double[] doubles = new double[0];
+
+        int[] ints = new int[0];
+    }
+
+    // The store calls the kernel from concurrent readers.
+    private static final ThreadLocal<Flags> FLAGS = ThreadLocal.withInitial(Flags::new);
+
+    @Override
+    public int select(double[] lengths, double[] weights, int[] addedDays, int[] removedDays,
+                      int from, int to, RollRanges ranges, int[] selection) {
+        int rows = to - from;
+        Flags flags = FLAGS.get();
+        if (flags.ints.length < rows) {
+            flags.doubles = new double[rows];
+            flags.ints = new int[rows];
+        }
+        int doubleBound = flagDoubles(lengths, weights, from, rows, ranges, flags.doubles);
+        int intBound = flagInts(addedDays, removedDays, from, rows, ranges, flags.ints);
+        int bound = Math.min(doubleBound, intBound);
+
+        int count = 0;
+        for (int j = 0; j < bound; j++) {
+            selection[count] = from + j;
+            count += (int) flags.doubles[j] & flags.ints[j];
+        }
+        return ScalarRangeFilterKernel.selectRange(lengths, weights, addedDays, removedDays, from + bound, to,
+                ranges, selection, count);
+    }
+
+    private static int flagDoubles(double[] lengths, double[] weights, int from, int rows, RollRanges ranges,
+                                   double[] flags) {
+        DoubleVector zero = DoubleVector.zero(DOUBLES);
+        int bound = DOUBLES.loopBound(rows);
+        for (int j = 0; j < bound; j += DOUBLES.length()) {
+            DoubleVector length = DoubleVector.fromArray(DOUBLES, lengths, from + j);
+            DoubleVector weight = DoubleVector.fromArray(DOUBLES, weights, from + j);
+            VectorMask<Double> matches = length.compare(VectorOperators.GE, ranges.lengthFrom())
+                    .and(length.compare(VectorOperators.LE, ranges.lengthTo()))
+                    .and(weight.compare(VectorOperators.GE, ranges.weightFrom()))
+                    .and(weight.compare(VectorOperators.LE, ranges.weightTo()));
+            zero.blend(1.0, matches).intoArray(flags, j);
+        }
+        return bound;
+    }
+
+    private static int flagInts(int[] addedDays, int[] removedDays, int from, int rows, RollRanges ranges,
+                                int[] flags) {
+        IntVector zero = IntVector.zero(INTS);
+        int bound = INTS.loopBound(rows);
+        for (int j = 0; j < bound; j += INTS.length()) {
+            IntVector added = IntVector.fromArray(INTS, addedDays, from + j);
+            IntVector removed = IntVector.fromArray(INTS, removedDays, from + j);
+            VectorMask<Integer> matches = added.compare(VectorOperators.GE, ranges.addedFrom())
+                    .and(added.compare(VectorOperators.LE, ranges.addedTo()))
+                    .and(removed.compare(VectorOperators.GE, ranges.removedFrom()))
+                    .and(removed.compare(VectorOperators.LE, ranges.removedTo()));
+            zero.blend(1, matches).intoArray(flags, j);
+        }
+        return bound;
+    }
+}
@@ -0,0 +1,358 @@
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.entities.RollChange;
+import com.warehouse.entities.RollChangeType;
+import com.warehouse.projections.RollPeriodAggregate;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.repositories.RollChangeRepository;
+import com.warehouse.repositories.RollRowHandler;
+import com.warehouse.specifications.MetalRollSpecification;
+import com.warehouse.statistics.DailyOccupancy;
+import com.warehouse.statistics.LogHistogram;
+import com.warehouse.statistics.RollHistograms;
+import com.warehouse.store.ColumnarRollStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ColumnarRollStoreTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    private static final LocalDate START = BASE.plusDays(100);
+
+    private static final LocalDate END = BASE.plusDays(160);
+
+    @Mock
+    private MetalRollRepository repository;
+
+    @Mock
+    private RollChangeFeed changeFeed;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<MetalRoll> rolls = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 1; i <= 400; i++) {
+            LocalDate added = BASE.plusDays(random.nextInt(300));
+            LocalDate removed = random.nextBoolean() ? added.plusDays(random.nextInt(90)) : null;
+            MetalRoll roll = new MetalRoll(1 + random.nextInt(400) / 4.0, 1 + random.nextInt(200) / 8.0, added, removed);
+            roll.setId(i * 3);
+            rolls.add(roll);
+        }
+    }
+
+    @Test
+    void shouldFilterLikeSpecification() {
+        ColumnarRollStore store = loadedStore(rolls);
+
+        List<MetalRollSpecification> specs = List.of(
+                new MetalRollSpecification(),
+                new MetalRollSpecification().idBetween(30, 300).lengthBetween(20.0, 60.0),
+                new MetalRollSpecification().weightBetween(5.0, 15.0).addedBetween(START, END),
+                new MetalRollSpecification().removedBetween(START, END),
+                new MetalRollSpecification().inStock().idGreaterThan(600),
+                new MetalRollSpecification().idBetween(31, 31));
+
+        for (MetalRollSpecification spec : specs) {
+            assertThat(store.find(spec)).containsExactlyElementsOf(
+                    rolls.stream().filter(spec::matches).map(MetalRollDTO::new).toList());
+        }
+    }
+
+    @Test
+    void shouldAggregateLikeTheDatabaseQuery() {
+        ColumnarRollStore store = loadedStore(rolls);
+        List<MetalRoll> active = rolls.stream()
+                .filter(r -> !r.getDateAdded().isAfter(END))
+                .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(START))
+                .toList();
+
+        RollPeriodAggregate aggregate = store.aggregate(START, END);
+
+        assertThat(aggregate.activeCount()).isEqualTo(active.size());
+        assertThat(aggregate.addedCount()).isEqualTo(active.stream()
+                .filter(r -> !r.getDateAdded().isBefore(START)).count());
+        assertThat(aggregate.removedCount()).isEqualTo(active.stream()
+                .filter(r -> r.getDateOfDeletion() != null && !r.getDateOfDeletion().isAfter(END)).count());
+        assertThat(aggregate.totalWeight()).isCloseTo(active.stream().mapToDouble(MetalRoll::getWeight).sum(), within(1e-9));
+        assertThat(aggregate.maxLength()).isEqualTo(active.stream().mapToDouble(MetalRoll::getLength).max().orElseThrow());
+        assertThat(aggregate.maxIntervalDays()).isEqualTo(active.stream()
+                .filter(r -> r.getDateOfDeletion() != null)
+                .mapToLong(r -> ChronoUnit.DAYS.between(r.getDateAdded(), r.getDateOfDeletion()))
+                .max().orElseThrow());
+        assertThat(store.aggregate(BASE.minusDays(10), BASE.minusDays(1)).activeCount()).isZero();
+    }
+
+    @Test
+    void shouldAggregateInParallelToTheSameBits() {
+        Random random = new Random(13);
+        List<MetalRoll> many = new ArrayList<>();
+        for (int i = 1; i <= 100_000; i++) {
+            LocalDate added = BASE.plusDays(random.nextInt(300));
+            LocalDate removed = random.nextBoolean() ? added.plusDays(random.nextInt(90)) : null;
+            MetalRoll roll = new MetalRoll(random.nextDouble() * 100, random.nextDouble() * 1e6, added, removed);
+            roll.setId(i);
+            many.add(roll);
+        }
+        doAnswer(inv -> {
+            RollRowHandler handler = inv.getArgument(1);
+            many.forEach(r -> handler.accept(r.getId(), r.getLength(), r.getWeight(),
+                    r.getDateAdded(), r.getDateOfDeletion()));
+            return null;
+        }).when(repository).forEachRow(anyInt(), any());
+        ColumnarRollStore sequential = new ColumnarRollStore(true, Integer.MAX_VALUE, repository, changeFeed,
+                transactionManager);
+        sequential.afterSingletonsInstantiated();
+        ColumnarRollStore parallel = new ColumnarRollStore(true, 0, repository, changeFeed, transactionManager);
+        parallel.afterSingletonsInstantiated();
+
+        for (LocalDate start = BASE; start.isBefore(BASE.plusDays(300)); start = start.plusDays(37)) {
+            LocalDate end = start.plusDays(45);
+            RollPeriodAggregate aggregate = parallel.aggregate(start, end);
+            assertThat(aggregate).isEqualTo(sequential.aggregate(start, end));
+
+            BigDecimal exactWeight = BigDecimal.ZERO;
+            for (MetalRoll r : many) {
+                if (!r.getDateAdded().isAfter(end) && (r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(start))) {
+                    exactWeight = exactWeight.add(new BigDecimal(r.getWeight()));
+                }
+            }
+            assertThat(aggregate.totalWeight()).isCloseTo(exactWeight.doubleValue(), within(Math.ulp(exactWeight.doubleValue())));
+        }
+    }
+
+    @Test
+    void shouldBuildSameOccupancyAsFromEntities() {
+        ColumnarRollStore store = loadedStore(rolls);
+        DailyOccupancy expected = new DailyOccupancy(START, END);
+        rolls.forEach(r -> expected.addRoll(r.getDateAdded(), r.getDateOfDeletion(), r.getWeight()));
+
+        RollStatisticsDTO fromStore = new RollStatisticsDTO();
+        store.occupancy(START, END).applyTo(fromStore);
+        RollStatisticsDTO fromEntities = new RollStatisticsDTO();
+        expected.applyTo(fromEntities);
+
+        assertThat(fromStore).isEqualTo(fromEntities);
+    }
+
+    @Test
+    void shouldFindActiveRollsLikeTheDatabaseQuery() {
+        ColumnarRollStore store = loadedStore(rolls);
+
+        for (LocalDate day = BASE.minusDays(1); day.isBefore(BASE.plusDays(400)); day = day.plusDays(7)) {
+            LocalDate current = day;
+            assertThat(store.findActive(current, current)).containsExactlyElementsOf(rolls.stream()
+                    .filter(r -> !r.getDateAdded().isAfter(current))
+                    .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(current))
+                    .map(MetalRollDTO::new)
+                    .toList());
+        }
+        assertThat(store.findActive(START, END)).hasSize(store.aggregate(START, END).activeCount().intValue());
+    }
+
+    @Test
+    void shouldKeepIndexesCurrentAfterChanges() {
+        ColumnarRollStore store = loadedStore(rolls);
+        MetalRoll first = rolls.stream()
+                .filter(r -> r.getDateOfDeletion() == null && r.getDateAdded().isBefore(START))
+                .findFirst().orElseThrow();
+        MetalRoll added = new MetalRoll(3.0, 4.0, START, null);
+        added.setId(5000);
+
+        store.rollsRemoved(List.of(first.getId()), START.plusDays(5));
+        store.rollsAdded(List.of(added));
+        first.setDateOfDeletion(START.plusDays(5));
+        rolls.add(added);
+
+        DailyOccupancy expected = new DailyOccupancy(START, END);
+        rolls.forEach(r -> expected.addRoll(r.getDateAdded(), r.getDateOfDeletion(), r.getWeight()));
+        RollStatisticsDTO fromStore = new RollStatisticsDTO();
+        store.occupancy(START, END).applyTo(fromStore);
+        RollStatisticsDTO fromEntities = new RollStatisticsDTO();
+        expected.applyTo(fromEntities);
+
+        assertThat(fromStore).isEqualTo(fromEntities);
+        assertThat(store.findActive(START.plusDays(6), START.plusDays(6)))
+                .extracting(MetalRollDTO::getId)
+                .contains(5000)
+                .doesNotContain(first.getId());
+    }
+
+    @Test
+    void shouldEstimatePercentilesOfPeriodRolls() {
+        ColumnarRollStore store = loadedStore(rolls);
+        List<MetalRoll> active = rolls.stream()
+                .filter(r -> !r.getDateAdded().isAfter(END))
+                .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(START))
+                .toList();
+        double[] lengths = active.stream().mapToDouble(MetalRoll::getLength).sorted().toArray();
+        double[] storageDays = active.stream()
+                .filter(r -> r.getDateOfDeletion() != null)
+                .mapToDouble(r -> ChronoUnit.DAYS.between(r.getDateAdded(), r.getDateOfDeletion()))
+                .sorted().toArray();
+
+        RollHistograms histograms = store.histograms(START, END);
+
+        assertThat(histograms.lengths().count()).isEqualTo(active.size());
+        assertThat(histograms.storageDays().count()).isEqualTo(storageDays.length);
+        for (double q : new double[]{0.5, 0.9, 0.99}) {
+            double exactLength = lengths[(int) Math.ceil(q * lengths.length) - 1];
+            double exactDays = storageDays[(int) Math.ceil(q * storageDays.length) - 1];
+            assertThat(histograms.lengths().quantile(q))
+                    .isCloseTo(exactLength, within(exactLength * LogHistogram.RELATIVE_ACCURACY + 1e-9));
+            assertThat(histograms.storageDays().quantile(q))
+                    .isCloseTo(exactDays, within(exactDays * LogHistogram.RELATIVE_ACCURACY + 1e-9));
+        }
+    }
+
+    @Test
+    void shouldKeepChangesCommittedDuringLoad() {
+        ColumnarRollStore store = new ColumnarRollStore(true, repository, changeFeed, transactionManager);
+        MetalRoll late = new MetalRoll(3.0, 4.0, END, null);
+        late.setId(5000);
+        doAnswer(inv -> {
+            RollRowHandler handler = inv.getArgument(1);
+            MetalRoll first = rolls.get(0);
+            handler.accept(first.getId(), first.getLength(), first.getWeight(), first.getDateAdded(), null);
+            store.rollsAdded(List.of(late));
+            store.rollsRemoved(List.of(first.getId()), END);
+            return null;
+        }).when(repository).forEachRow(anyInt(), any());
+
+        store.afterSingletonsInstantiated();
+
+        assertThat(store.find(new MetalRollSpecification()))
+                .extracting(MetalRollDTO::getId, MetalRollDTO::getDateOfDeletion)
+                .containsExactly(
+                        tuple(rolls.get(0).getId(), END),
+                        tuple(5000, null));
+    }
+
+    @Test
+    void shouldApplyChangesLoggedByOtherInstances() throws InterruptedException {
+        List<RollChange> logged = new CopyOnWriteArrayList<>();
+        RollChangeRepository changes = mock(RollChangeRepository.class);
+        when(changes.findLastSeq()).thenAnswer(inv -> (long) logged.size());
+        when(changes.findBySeqGreaterThanOrderBySeq(anyLong(), any(Limit.class))).thenAnswer(inv -> {
+            long since = inv.getArgument(0);
+            Limit limit = inv.getArgument(1);
+            return logged.stream().filter(c -> c.getSeq() > since).limit(limit.max()).toList();
+        });
+        RollChangeFeed feed = new RollChangeFeed(changes, Duration.ofMillis(10));
+        try {
+            List<MetalRoll> inStock = rolls.stream()
+                    .filter(r -> r.getDateOfDeletion() == null && r.getDateAdded().isBefore(END))
+                    .toList();
+            MetalRoll removedHere = inStock.get(0);
+            MetalRoll removedThere = inStock.get(1);
+            // already in the rows the store loads
+            log(logged, RollChangeType.ADDED, removedHere.getId(), removedHere.getDateAdded(), null);
+            ColumnarRollStore store = loadedStore(rolls, feed);
+
+            // this instance removes a roll; the log still shows its older addition
+            store.rollsRemoved(List.of(removedHere.getId()), END);
+            log(logged, RollChangeType.ADDED, 5000, END, null);
+            log(logged, RollChangeType.REMOVED, removedThere.getId(), removedThere.getDateAdded(), END);
+            log(logged, RollChangeType.ADDED, removedHere.getId(), removedHere.getDateAdded(), null);
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (store.find(new MetalRollSpecification().idBetween(5000, 5000)).isEmpty()
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            assertThat(store.find(new MetalRollSpecification().idBetween(5000, 5000))).hasSize(1);
+            assertThat(store.find(new MetalRollSpecification().removedBetween(END, END)))
+                    .extracting(MetalRollDTO::getId)
+                    .contains(removedHere.getId(), removedThere.getId());
+            assertThat(store.find(new MetalRollSpecification())).hasSize(rolls.size() + 1);
+        } finally {
+            feed.destroy();
+        }
+    }
+
+    @Test
+    void shouldInsertRollsCommittedOutOfIdOrder() {
+        ColumnarRollStore store = loadedStore(rolls);
+        MetalRoll between = new MetalRoll(3.0, 4.0, END, null);
+        between.setId(7);
+
+        store.rollsAdded(List.of(between));
+
+        assertThat(store.find(new MetalRollSpecification().idBetween(1, 10)))
+                .extracting(MetalRollDTO::getId)
+                .containsExactly(3, 6, 7, 9);
+    }
+
+    @Test
+    void shouldStayEmptyWhenDisabled() {
+        ColumnarRollStore store = new ColumnarRollStore(false, repository, changeFeed, transactionManager);
+
+        store.afterSingletonsInstantiated();
+
+        assertThat(store.isReady()).isFalse();
+        verifyNoInteractions(repository);
+    }
+
+    private ColumnarRollStore loadedStore(List<MetalRoll> source) {
+        return loadedStore(source, changeFeed);
+    }
+
+    private ColumnarRollStore loadedStore(List<MetalRoll> source, RollChangeFeed feed) {
+        List<MetalRoll> shuffled = new ArrayList<>(source);
+        Collections.shuffle(shuffled, new Random(3));
+        doAnswer(inv -> {
+            RollRowHandler handler = inv.getArgument(1);
+            shuffled.forEach(r -> handler.accept(r.getId(), r.getLength(), r.getWeight(),
+                    r.getDateAdded(), r.getDateOfDeletion()));
+            return null;
+        }).when(repository).forEachRow(anyInt(), any());
+
+        ColumnarRollStore store = new ColumnarRollStore(true, repository, feed, transactionManager);
+        store.afterSingletonsInstantiated();
+        source.sort(Comparator.comparingInt(MetalRoll::getId));
+        return store;
+    }
+
+    private static void log(List<RollChange> logged, RollChangeType type, int id, LocalDate added, LocalDate removed) {
+        RollChange change = new RollChange(type, id, 3.0, 4.0, added, removed);
+        change.setSeq(logged.size() + 1);
+        logged.add(change);
+    }
+}
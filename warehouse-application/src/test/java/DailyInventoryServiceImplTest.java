@@ -0,0 +1,118 @@
+import com.warehouse.DTO.BucketSize;
+import com.warehouse.DTO.InventoryCheckDTO;
+import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.DTO.StockBucketDTO;
+import com.warehouse.entities.DailyInventory;
+import com.warehouse.projections.DailyRollDelta;
+import com.warehouse.repositories.DailyInventoryRepository;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.services.DailyInventoryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DailyInventoryServiceImplTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 2, 1);
+
+    @Mock
+    private DailyInventoryRepository repository;
+
+    @Mock
+    private MetalRollRepository rollRepository;
+
+    @InjectMocks
+    private DailyInventoryServiceImpl service;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRebuildRunningStockFromRollDeltas() {
+        when(rollRepository.findDailyDeltas()).thenReturn(List.of(
+                new DailyRollDelta(DAY, 2L, 5.0),
+                new DailyRollDelta(DAY.plusDays(3), 1L, 1.5),
+                new DailyRollDelta(DAY.plusDays(3), -1L, -2.0)));
+
+        long days = service.rebuild();
+
+        ArgumentCaptor<List<DailyInventory>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository).deleteAllInBatch();
+        verify(repository).saveAll(rows.capture());
+        assertThat(days).isEqualTo(2);
+        assertThat(rows.getValue()).containsExactly(
+                new DailyInventory(DAY, 2, 0, 5.0, 0.0, 2, 5.0),
+                new DailyInventory(DAY.plusDays(3), 1, 1, 1.5, 2.0, 2, 4.5));
+    }
+
+    @Test
+    void shouldBuildWeeklySeriesFromRowsOfPeriod() {
+        // 2026-02-01 is a Sunday, so the period starts with a one-day week
+        when(repository.findFirstByInventoryDayLessThanOrderByInventoryDayDesc(DAY))
+                .thenReturn(Optional.of(new DailyInventory(DAY.minusDays(4), 1, 0, 2.0, 0.0, 3, 6.0)));
+        when(repository.findByInventoryDayBetweenOrderByInventoryDay(DAY, DAY.plusDays(16))).thenReturn(List.of(
+                new DailyInventory(DAY.plusDays(2), 2, 0, 3.0, 0.0, 5, 9.0),
+                new DailyInventory(DAY.plusDays(4), 0, 1, 0.0, 1.5, 4, 7.5)));
+
+        List<StockBucketDTO> series = service.getSeries(DAY, DAY.plusDays(16), BucketSize.WEEK);
+
+        assertThat(series).containsExactly(
+                new StockBucketDTO(DAY, 3, 6.0, 0, 0),
+                new StockBucketDTO(DAY.plusDays(1), 4, 7.5, 2, 1),
+                new StockBucketDTO(DAY.plusDays(8), 4, 7.5, 0, 0),
+                new StockBucketDTO(DAY.plusDays(15), 4, 7.5, 0, 0));
+    }
+
+    @Test
+    void shouldReportDaysThatDifferFromRollTable() {
+        when(rollRepository.findDailyDeltas()).thenReturn(List.of(
+                new DailyRollDelta(DAY, 2L, 5.0),
+                new DailyRollDelta(DAY.plusDays(3), -1L, -2.0)));
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(
+                new DailyInventory(DAY, 2, 0, 5.0, 0.0, 2, 5.0),
+                new DailyInventory(DAY.plusDays(3), 0, 1, 0.0, 2.0, 2, 3.0),
+                new DailyInventory(DAY.plusDays(5), 1, 0, 1.0, 0.0, 3, 4.0)));
+
+        InventoryCheckDTO result = service.check();
+
+        assertThat(result.isConsistent()).isFalse();
+        assertThat(result.getCheckedDays()).isEqualTo(3);
+        assertThat(result.getMismatchedDays()).isEqualTo(2);
+        assertThat(result.getFirstMismatch()).isEqualTo(DAY.plusDays(3));
+    }
+
+    @Test
+    void shouldNotBackfillWhenInventoryHasRows() {
+        when(repository.count()).thenReturn(4L);
+
+        assertThat(service.rebuildIfEmpty()).isFalse();
+        verify(repository, never()).deleteAllInBatch();
+    }
+
+    @Test
+    void shouldCarryStockFromEarlierRowIntoPeriod() {
+        when(repository.findFirstByInventoryDayLessThanOrderByInventoryDayDesc(DAY))
+                .thenReturn(Optional.of(new DailyInventory(DAY.minusDays(9), 1, 0, 4.0, 0.0, 3, 12.0)));
+        when(repository.findByInventoryDayBetweenOrderByInventoryDay(DAY, DAY.plusDays(4))).thenReturn(List.of(
+                new DailyInventory(DAY.plusDays(2), 0, 2, 0.0, 8.0, 1, 4.0)));
+
+        RollStatisticsDTO stats = new RollStatisticsDTO();
+        service.getOccupancy(DAY, DAY.plusDays(4)).applyTo(stats);
+
+        assertThat(stats.getDayWithMaxCount()).isBefore(DAY.plusDays(2));
+        assertThat(stats.getDayWithMinWeight()).isAfterOrEqualTo(DAY.plusDays(2));
+    }
+}
@@ -0,0 +1,138 @@
+import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.statistics.DailyOccupancy;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class DailyOccupancyTest {
+
+    private static final LocalDate BASE = LocalDate.of(2023, 11, 20);
+
+    @Test
+    void shouldMatchDayByDayScanOnRandomData() {
+        for (int seed = 0; seed < 300; seed++) {
+            Random random = new Random(seed);
+            LocalDate periodStart = BASE.plusDays(random.nextInt(400));
+            LocalDate periodEnd = periodStart.plusDays(random.nextInt(seed % 3 == 0 ? 2000 : 60));
+
+            List<MetalRoll> rolls = new ArrayList<>();
+            int size = 1 + random.nextInt(80);
+            for (int i = 0; i < size; i++) {
+                LocalDate added = BASE.plusDays(random.nextInt(2600));
+                LocalDate removed = random.nextInt(3) == 0 ? null : added.plusDays(random.nextInt(300));
+                // quarter-ton weights keep every daily total exact, whatever the summation order
+                rolls.add(new MetalRoll(10.0, 1 + random.nextInt(40) / 4.0, added, removed));
+            }
+            List<MetalRoll> activeRolls = rolls.stream()
+                    .filter(r -> !r.getDateAdded().isAfter(periodEnd))
+                    .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(periodStart))
+                    .toList();
+
+            RollStatisticsDTO expected = new RollStatisticsDTO();
+            scanDayByDay(periodStart, periodEnd, activeRolls, expected);
+
+            DailyOccupancy occupancy = new DailyOccupancy(periodStart, periodEnd);
+            activeRolls.forEach(r -> occupancy.addRoll(r.getDateAdded(), r.getDateOfDeletion(), r.getWeight()));
+            RollStatisticsDTO actual = new RollStatisticsDTO();
+            occupancy.applyTo(actual);
+
+            assertThat(actual).as("seed %d", seed).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void shouldMatchDayByDayScanUpToRoundingWithDecimalWeights() {
+        for (int seed = 0; seed < 300; seed++) {
+            Random random = new Random(seed);
+            LocalDate periodStart = BASE.plusDays(random.nextInt(400));
+            LocalDate periodEnd = periodStart.plusDays(random.nextInt(seed % 3 == 0 ? 2000 : 60));
+
+            List<MetalRoll> rolls = new ArrayList<>();
+            int size = 1 + random.nextInt(80);
+            for (int i = 0; i < size; i++) {
+                LocalDate added = BASE.plusDays(random.nextInt(2600));
+                LocalDate removed = random.nextInt(3) == 0 ? null : added.plusDays(random.nextInt(300));
+                rolls.add(new MetalRoll(10.0, 0.1 + random.nextInt(400) / 10.0, added, removed));
+            }
+            List<MetalRoll> activeRolls = rolls.stream()
+                    .filter(r -> !r.getDateAdded().isAfter(periodEnd))
+                    .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(periodStart))
+                    .toList();
+
+            RollStatisticsDTO expected = new RollStatisticsDTO();
+            Map<LocalDate, Double> weightByDay = scanDayByDay(periodStart, periodEnd, activeRolls, expected);
+
+            DailyOccupancy occupancy = new DailyOccupancy(periodStart, periodEnd);
+            activeRolls.forEach(r -> occupancy.addRoll(r.getDateAdded(), r.getDateOfDeletion(), r.getWeight()));
+            RollStatisticsDTO actual = new RollStatisticsDTO();
+            occupancy.applyTo(actual);
+
+            assertThat(actual.getDayWithMinCount()).as("seed %d", seed).isEqualTo(expected.getDayWithMinCount());
+            assertThat(actual.getDayWithMaxCount()).as("seed %d", seed).isEqualTo(expected.getDayWithMaxCount());
+            // another day may win only if its former total was the same up to rounding
+            assertThat(weightByDay.get(actual.getDayWithMinWeight())).as("seed %d", seed)
+                    .isCloseTo(weightByDay.get(expected.getDayWithMinWeight()), within(1e-9));
+            assertThat(weightByDay.get(actual.getDayWithMaxWeight())).as("seed %d", seed)
+                    .isCloseTo(weightByDay.get(expected.getDayWithMaxWeight()), within(1e-9));
+        }
+    }
+
+    @Test
+    void shouldIgnoreRollAddedAndRemovedOnSameDay() {
+        LocalDate day = LocalDate.of(2026, 3, 1);
+        DailyOccupancy occupancy = new DailyOccupancy(day, day.plusDays(2));
+        occupancy.addRoll(day.plusDays(1), day.plusDays(1), 5.0);
+        occupancy.addRoll(day, day.plusDays(2), 1.0);
+
+        RollStatisticsDTO stats = new RollStatisticsDTO();
+        occupancy.applyTo(stats);
+
+        assertThat(stats.getDayWithMaxWeight()).isNotEqualTo(day.plusDays(2));
+        assertThat(stats.getDayWithMinCount()).isEqualTo(day.plusDays(2));
+    }
+
+    // The calculation MetalRollServiceImpl used before the sweep, kept as the reference.
+    private static Map<LocalDate, Double> scanDayByDay(LocalDate periodStart, LocalDate periodEnd,
+                                                       List<MetalRoll> activeRolls, RollStatisticsDTO stats) {
+        Map<LocalDate, Long> countByDay = new HashMap<>();
+        Map<LocalDate, Double> weightByDay = new HashMap<>();
+
+        LocalDate current = periodStart;
+        while (!current.isAfter(periodEnd)) {
+            long count = 0;
+            double weight = 0.0;
+
+            for (MetalRoll r : activeRolls) {
+                if (r.getDateAdded().isAfter(current)) continue;
+                if (r.getDateOfDeletion() != null && !r.getDateOfDeletion().isAfter(current)) continue;
+
+                count++;
+                weight += r.getWeight();
+            }
+
+            countByDay.put(current, count);
+            weightByDay.put(current, weight);
+
+            current = current.plusDays(1);
+        }
+
+        stats.setDayWithMinCount(countByDay.entrySet().stream()
+                .min(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null));
+        stats.setDayWithMaxCount(countByDay.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null));
+        stats.setDayWithMinWeight(weightByDay.entrySet().stream()
+                .min(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null));
+        stats.setDayWithMaxWeight(weightByDay.entrySet().stream()
+                .max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null));
+        return weightByDay;
+    }
+}
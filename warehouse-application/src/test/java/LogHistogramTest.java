@@ -0,0 +1,74 @@
+import com.warehouse.statistics.LogHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LogHistogramTest {
+
+    private static final double[] QUANTILES = {0.0, 0.01, 0.25, 0.5, 0.9, 0.99, 0.999, 1.0};
+
+    private final Random random = new Random(13);
+
+    @Test
+    void shouldStayWithinRelativeAccuracyOfExactQuantiles() {
+        double[] logNormal = new double[100_000];
+        double[] uniform = new double[100_000];
+        double[] days = new double[100_000];
+        for (int i = 0; i < logNormal.length; i++) {
+            logNormal[i] = Math.exp(2 + random.nextGaussian());
+            uniform[i] = 0.5 + random.nextDouble() * 99.5;
+            days[i] = random.nextInt(10) == 0 ? 0 : random.nextInt(400);
+        }
+
+        for (double[] values : new double[][]{logNormal, uniform, days}) {
+            LogHistogram histogram = new LogHistogram();
+            Arrays.stream(values).forEach(histogram::add);
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            for (double q : QUANTILES) {
+                double exact = sorted[(int) Math.max(1, Math.ceil(q * sorted.length)) - 1];
+                assertThat(histogram.quantile(q))
+                        .isCloseTo(exact, within(exact * LogHistogram.RELATIVE_ACCURACY + 1e-9));
+            }
+        }
+    }
+
+    @Test
+    void shouldGiveSameQuantilesAfterMergeAndSubtract() {
+        LogHistogram all = new LogHistogram();
+        LogHistogram first = new LogHistogram();
+        LogHistogram second = new LogHistogram();
+        for (int i = 0; i < 10_000; i++) {
+            double value = 1 + random.nextInt(5000) / 10.0;
+            all.add(value);
+            (i % 3 == 0 ? first : second).add(value);
+        }
+        LogHistogram merged = new LogHistogram();
+        merged.merge(first);
+        merged.merge(second);
+        LogHistogram withoutFirst = new LogHistogram();
+        withoutFirst.merge(all);
+        withoutFirst.subtract(first);
+
+        for (double q : QUANTILES) {
+            assertThat(merged.quantile(q)).isEqualTo(all.quantile(q));
+            assertThat(withoutFirst.quantile(q)).isEqualTo(second.quantile(q));
+        }
+        assertThat(withoutFirst.count()).isEqualTo(second.count());
+    }
+
+    @Test
+    void shouldHaveNoQuantilesWhenEmpty() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.add(5.0);
+        histogram.add(5.0, -1);
+
+        assertThat(histogram.count()).isZero();
+        assertThat(histogram.quantile(0.5)).isNull();
+    }
+}
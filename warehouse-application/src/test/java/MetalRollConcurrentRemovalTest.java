@@ -0,0 +1,184 @@
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.exceptions.RollAlreadyRemovedException;
+import com.warehouse.exceptions.RollNotFoundException;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.services.DailyInventoryServiceImpl;
+import com.warehouse.services.MetalRollServiceImpl;
+import com.warehouse.statistics.StatisticsCache;
+import com.warehouse.statistics.StatisticsQueryExecutor;
+import com.warehouse.store.ColumnarRollStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Many threads remove overlapping rolls one at a time through the service, each call in its own
+ * transaction, as concurrent {@code DELETE /rolls/{id}} requests would. Every roll must be
+ * removed exactly once, whichever thread wins, and every other call must report why it lost.
+ * Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "warehouse.changes.poll-interval=0s",
+        "warehouse.stats-cache.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({MetalRollServiceImpl.class, DailyInventoryServiceImpl.class, StatisticsCache.class,
+        StatisticsQueryExecutor.class, ColumnarRollStore.class, RollChangeFeed.class, RollMetrics.class})
+public class MetalRollConcurrentRemovalTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MetalRollConcurrentRemovalTest.class);
+
+    private static final int ROLLS = 2_000;
+
+    private static final int SERIAL_ROLLS = 500;
+
+    private static final int THREADS = 16;
+
+    // every thread tries this many ids, so each roll is contended by about four threads
+    private static final int ATTEMPTS_PER_THREAD = ROLLS / 4;
+
+    // ids past the inserted rolls, tried now and then to check the not-found answer under load
+    private static final int MISSING_IDS = 50;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private MetalRollServiceImpl service;
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Test
+    void shouldRemoveEveryRollExactlyOnceUnderContention() throws Exception {
+        LocalDate day = LocalDate.now().minusDays(1);
+        List<Integer> serialIds = insert(SERIAL_ROLLS, day);
+        List<Integer> ids = insert(ROLLS, day);
+        int firstMissing = ids.get(ids.size() - 1) + 1;
+
+        // the same calls one after another, as the throughput to compare with
+        long serialBegan = System.nanoTime();
+        for (int id : serialIds) {
+            service.removeMetalRoll(id);
+        }
+        double serialPerSecond = SERIAL_ROLLS / ((System.nanoTime() - serialBegan) / 1e9);
+
+        Map<Integer, AtomicInteger> wins = new ConcurrentHashMap<>();
+        Set<Integer> alreadyRemoved = ConcurrentHashMap.newKeySet();
+        AtomicInteger alreadyRemovedCalls = new AtomicInteger();
+        AtomicInteger notFoundCalls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            workers.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int id = random.nextInt(20) == 0
+                            ? firstMissing + random.nextInt(MISSING_IDS)
+                            : ids.get(random.nextInt(ids.size()));
+                    try {
+                        assertThat(service.removeMetalRoll(id).getDateOfDeletion()).isNotNull();
+                        wins.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+                    } catch (RollAlreadyRemovedException e) {
+                        alreadyRemoved.add(id);
+                        alreadyRemovedCalls.incrementAndGet();
+                    } catch (RollNotFoundException e) {
+                        assertThat(id).isGreaterThanOrEqualTo(firstMissing);
+                        notFoundCalls.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double concurrentPerSecond = THREADS * ATTEMPTS_PER_THREAD / ((System.nanoTime() - began) / 1e9);
+        pool.shutdown();
+        log.info("removeMetalRoll: {} calls/s from one thread, {} calls/s from {} threads",
+                Math.round(serialPerSecond), Math.round(concurrentPerSecond), THREADS);
+
+        assertThat(wins.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(wins.keySet()).doesNotContainAnyElementsOf(serialIds).allMatch(id -> id < firstMissing);
+        // a roll is reported as already removed only after someone removed it
+        assertThat(wins.keySet()).containsAll(alreadyRemoved);
+        assertThat(wins.size() + alreadyRemovedCalls.get() + notFoundCalls.get())
+                .isEqualTo(THREADS * ATTEMPTS_PER_THREAD);
+        assertThat(notFoundCalls.get()).isPositive();
+        long removedRows = repository.findAll().stream().filter(r -> r.getDateOfDeletion() != null).count();
+        assertThat(removedRows).isEqualTo(SERIAL_ROLLS + wins.size());
+        assertThatThrownBy(() -> service.removeMetalRoll(serialIds.get(0)))
+                .isInstanceOf(RollAlreadyRemovedException.class);
+
+        // Removals of one day queue on its inventory row and on the change log lock from there to
+        // the commit, so threads cannot multiply the throughput; contention must not cut it either,
+        // as lock waits on the roll rows or retries would.
+        assertThat(concurrentPerSecond).isGreaterThanOrEqualTo(serialPerSecond * 0.8);
+    }
+
+    private List<Integer> insert(int count, LocalDate day) {
+        List<MetalRoll> rolls = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rolls.add(new MetalRoll(1.0 + i, 1.0, day, null));
+        }
+        return repository.insertAll(rolls).stream().map(MetalRoll::getId).toList();
+    }
+}
@@ -1,25 +1,54 @@
+import com.warehouse.DTO.BucketSize;
 import com.warehouse.DTO.FilterDTO;
 import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.DTO.RemovalOutcome;
+import com.warehouse.DTO.RemovalResultDTO;
+import com.warehouse.DTO.RollPageDTO;
 import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.changes.RollChangeFeed;
 import com.warehouse.entities.MetalRoll;
 import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.exceptions.RollAlreadyRemovedException;
 import com.warehouse.exceptions.RollNotFoundException;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.projections.RemovedRoll;
+import com.warehouse.projections.RollPeriodAggregate;
 import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.services.DailyInventoryService;
 import com.warehouse.services.MetalRollServiceImpl;
+import com.warehouse.specifications.MetalRollSpecification;
+import com.warehouse.statistics.DailyOccupancy;
+import com.warehouse.statistics.StatisticsCache;
+import com.warehouse.statistics.StatisticsQueryExecutor;
+import com.warehouse.store.ColumnarRollStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -28,6 +57,24 @@ public class MetalRollServiceImplTest {
     @Mock
     private MetalRollRepository repository;
 
+    @Mock
+    private DailyInventoryService inventoryService;
+
+    @Spy
+    private StatisticsCache statisticsCache = new StatisticsCache(false, 0, Duration.ZERO);
+
+    @Spy
+    private StatisticsQueryExecutor queryExecutor = new StatisticsQueryExecutor((Executor) null);
+
+    @Spy
+    private ColumnarRollStore rollStore = new ColumnarRollStore(false, null, null, null);
+
+    @Mock
+    private RollChangeFeed changeFeed;
+
+    @Spy
+    private RollMetrics metrics = new RollMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private MetalRollServiceImpl service;
 
@@ -43,6 +90,7 @@ public class MetalRollServiceImplTest {
 
         assertThat(result.getId()).isEqualTo(12);
         assertThat(result.getLength()).isEqualTo(10.0);
+        verify(inventoryService).recordChange(LocalDate.now(), 1, 2.0, 0, 0.0);
     }
 
     @Test
@@ -53,32 +101,63 @@ public class MetalRollServiceImplTest {
     }
 
     @Test
-    void shouldRemoveRoll() {
-        MetalRoll existing = new MetalRoll();
-        existing.setId(42);
-        existing.setLength(10.0);
-        existing.setWeight(2.0);
-        existing.setDateAdded(LocalDate.of(2026, 1, 1));
-        existing.setDateOfDeletion(null);
-
-        when(repository.findById(42)).thenReturn(Optional.of(existing));
-        when(repository.save(any(MetalRoll.class))).thenAnswer(inv -> {
-            MetalRoll r = inv.getArgument(0);
-            return r;
+    void shouldAddBatchWithOneInventoryUpdate() {
+        when(repository.insertAll(anyList())).thenAnswer(inv -> {
+            List<MetalRoll> rolls = inv.getArgument(0);
+            for (int i = 0; i < rolls.size(); i++) {
+                rolls.get(i).setId(100 + i);
+            }
+            return rolls;
         });
 
+        List<MetalRollDTO> result = service.addMetalRolls(List.of(new NewRollDTO(10.0, 2.0), new NewRollDTO(12.0, 3.5)));
+
+        assertThat(result.size()).isEqualTo(2);
+        assertThat(result.get(1).getId()).isEqualTo(101);
+        verify(inventoryService).recordChange(LocalDate.now(), 2, 5.5, 0, 0.0);
+        verify(changeFeed).rollsAdded(List.of(100, 101));
+    }
+
+    @Test
+    void shouldRejectWholeBatchWhenOneRollIsInvalid() {
+        assertThatThrownBy(() -> service.addMetalRolls(List.of(new NewRollDTO(10.0, 2.0), new NewRollDTO(12.0, null))))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Length and weight must be positive numbers (roll #2).");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldRemoveRoll() {
+        MetalRoll removed = new MetalRoll(10.0, 2.0, LocalDate.of(2026, 1, 1), LocalDate.now());
+        removed.setId(42);
+        when(repository.removeActive(List.of(42), LocalDate.now())).thenReturn(List.of(new RemovedRoll(42, 2.0)));
+        when(repository.findById(42)).thenReturn(Optional.of(removed));
+
         MetalRollDTO result = service.removeMetalRoll(42);
 
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(42);
-        assertThat(result.getDateOfDeletion()).isNotNull();
-        verify(repository).findById(42);
-        verify(repository).save(any(MetalRoll.class));
+        assertThat(result.getDateOfDeletion()).isEqualTo(LocalDate.now());
+        verify(repository, never()).save(any(MetalRoll.class));
+        verify(inventoryService).recordChange(LocalDate.now(), 0, 0.0, 1, 2.0);
+        verify(changeFeed).rollsRemoved(List.of(42));
+    }
+
+    @Test
+    void shouldReportConflictWhenRollIsAlreadyRemoved() {
+        when(repository.removeActive(List.of(42), LocalDate.now())).thenReturn(List.of());
+        when(repository.existsById(42)).thenReturn(true);
+
+        assertThatThrownBy(() -> service.removeMetalRoll(42))
+                .isInstanceOf(RollAlreadyRemovedException.class)
+                .hasMessage("MetalRoll with id 42 is already removed");
+        verifyNoInteractions(inventoryService, changeFeed);
     }
 
     @Test
     void shouldThrowWhenRollNotFound() {
-        when(repository.findById(777)).thenReturn(Optional.empty());
+        when(repository.removeActive(List.of(777), LocalDate.now())).thenReturn(List.of());
+        when(repository.existsById(777)).thenReturn(false);
 
         assertThatThrownBy(() -> service.removeMetalRoll(777))
                 .isInstanceOf(RollNotFoundException.class)
@@ -101,7 +180,10 @@ public class MetalRollServiceImplTest {
         r2.setDateAdded(LocalDate.now());
         r2.setDateOfDeletion(null);
 
-        when(repository.findAll()).thenReturn(List.of(r1, r2));
+        when(repository.findAll(any(MetalRollSpecification.class))).thenAnswer(inv -> {
+            MetalRollSpecification spec = inv.getArgument(0);
+            return Stream.of(r1, r2).filter(spec::matches).toList();
+        });
 
         FilterDTO filter = new FilterDTO();
         filter.setLengthFrom(7.0);
@@ -109,31 +191,100 @@ public class MetalRollServiceImplTest {
 
         List<MetalRollDTO> result = service.getFilteredMetalRolls(filter);
 
+        assertThat(result.size()).isEqualTo(1);
         assertThat(result.get(0).getId()).isEqualTo(1);
+        assertThat(RollMetrics.filterShape(filter)).isEqualTo("length");
+        verify(metrics).recordReturnedRolls("list", filter, 1);
     }
 
     @Test
-    void shouldCalculateStatistics() {
-        MetalRoll r1 = new MetalRoll();
-        r1.setId(1);
-        r1.setLength(10.0);
-        r1.setWeight(2.0);
-        r1.setDateAdded(LocalDate.of(2026, 1, 5));
-        r1.setDateOfDeletion(null);
+    void shouldReturnActiveRollsInIdOrderFromRepository() {
+        LocalDate day = LocalDate.of(2026, 1, 10);
+        List<MetalRoll> rolls = Stream.of(8, 3).map(id -> {
+            MetalRoll r = new MetalRoll(10.0, 2.0, day.minusDays(id), null);
+            r.setId(id);
+            return r;
+        }).toList();
+        when(repository.findActiveInPeriod(day, day)).thenReturn(rolls);
 
-        MetalRoll r2 = new MetalRoll();
-        r2.setId(2);
-        r2.setLength(15.0);
-        r2.setWeight(3.0);
-        r2.setDateAdded(LocalDate.of(2026, 1, 10));
-        r2.setDateOfDeletion(LocalDate.of(2026, 1, 20));
+        List<MetalRollDTO> result = service.getActiveMetalRolls(day);
+
+        assertThat(result.stream().map(MetalRollDTO::getId).toList()).isEqualTo(List.of(3, 8));
+        verify(metrics).recordReturnedRolls("active", 2);
+    }
+
+    @Test
+    void shouldRejectInvertedAddedDateFilter() {
+        FilterDTO filter = new FilterDTO();
+        filter.setAddedFrom(LocalDate.of(2026, 2, 1));
+        filter.setAddedTo(LocalDate.of(2026, 1, 1));
+
+        assertThatThrownBy(() -> service.getFilteredMetalRolls(filter))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("The start date of adding cannot be later than the end date.");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldValidateFilterWithoutQuerying() {
+        FilterDTO filter = new FilterDTO();
+        filter.setWeightFrom(-1.0);
+        filter.setWeightTo(5.0);
+
+        assertThatThrownBy(() -> service.validateFilter(filter))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Weight must be positive numbers.");
+        service.validateFilter(new FilterDTO());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenPageIsFull() {
+        List<MetalRoll> rolls = Stream.of(3, 5, 8).map(id -> {
+            MetalRoll r = new MetalRoll(10.0, 2.0, LocalDate.of(2026, 1, 1), null);
+            r.setId(id);
+            return r;
+        }).toList();
+        when(repository.findBy(any(MetalRollSpecification.class), any())).thenReturn(rolls);
+
+        RollPageDTO page = service.getMetalRollsPage(new FilterDTO(), 1, 2);
 
+        assertThat(page.getItems().size()).isEqualTo(2);
+        assertThat(page.getItems().get(1).getId()).isEqualTo(5);
+        assertThat(page.getNextCursor()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldReturnNoCursorOnLastPage() {
+        MetalRoll r = new MetalRoll(10.0, 2.0, LocalDate.of(2026, 1, 1), null);
+        r.setId(9);
+        when(repository.findBy(any(MetalRollSpecification.class), any())).thenReturn(List.of(r));
+
+        RollPageDTO page = service.getMetalRollsPage(new FilterDTO(), 8, 2);
+
+        assertThat(page.getItems().size()).isEqualTo(1);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectPageLimitOutOfRange() {
+        assertThatThrownBy(() -> service.getMetalRollsPage(new FilterDTO(), null, 0))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Limit must be between 1 and 1000.");
+    }
+
+    @Test
+    void shouldCalculateStatistics() {
         LocalDate start = LocalDate.of(2026, 1, 1);
         LocalDate end = LocalDate.of(2026, 1, 31);
 
-        when(repository.findActiveInPeriod(start, end)).thenReturn(List.of(r1, r2));
-        when(repository.findByDateAddedBetween(start, end)).thenReturn(List.of(r1, r2));
-        when(repository.findByDateOfDeletionBetween(start, end)).thenReturn(List.of(r2));
+        when(repository.aggregateInPeriod(start, end)).thenReturn(new RollPeriodAggregate(
+                2L, 1L, 2L, 12.5, 10.0, 15.0, 2.5, 2.0, 3.0, 5.0, 10L, 10L));
+        DailyOccupancy occupancy = new DailyOccupancy(start, end);
+        occupancy.addDelta(LocalDate.of(2026, 1, 5), 1, 2.0);
+        occupancy.addDelta(LocalDate.of(2026, 1, 10), 1, 3.0);
+        occupancy.addDelta(LocalDate.of(2026, 1, 20), -1, -3.0);
+        when(inventoryService.getOccupancy(start, end)).thenReturn(occupancy);
 
         RollStatisticsDTO stats = service.getStatistics(start, end);
 
@@ -141,7 +292,108 @@ public class MetalRollServiceImplTest {
         assertThat(stats.getRemovedCount()).isEqualTo(1);
         assertThat(stats.getAvgLength()).isEqualTo(12.5);
         assertThat(stats.getMaxIntervalDays()).isEqualTo(10);
+        assertThat(stats.getDayWithMaxCount()).isBetween(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 1, 19));
+        assertThat(stats.getDayWithMinCount()).isBefore(LocalDate.of(2026, 1, 5));
+    }
+
+    @Test
+    void shouldReturnEmptyStatisticsWhenNothingInStock() {
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        LocalDate end = LocalDate.of(2026, 1, 31);
+        when(repository.aggregateInPeriod(start, end)).thenReturn(new RollPeriodAggregate(
+                0L, 0L, 0L, null, null, null, null, null, null, null, null, null));
+
+        RollStatisticsDTO stats = service.getStatistics(start, end);
+
+        assertThat(stats.getAvgWeight()).isEqualTo(0.0);
+        assertThat(stats.getMinIntervalDays()).isEqualTo(-1);
+        assertThat(stats.getDayWithMaxWeight()).isNull();
+    }
+
+    @Test
+    void shouldRejectInvertedSeriesPeriod() {
+        LocalDate start = LocalDate.of(2026, 2, 1);
+
+        assertThatThrownBy(() -> service.getStockSeries(start, start.minusDays(1), BucketSize.MONTH))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("The start date of the period cannot be later than the end date");
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    void shouldReportOutcomeOfEveryRequestedRoll() {
+        when(repository.removeActive(any(), any(LocalDate.class)))
+                .thenReturn(List.of(new RemovedRoll(1, 2.0), new RemovedRoll(3, 1.5)));
+        when(repository.findExistingIds(List.of(2, 4))).thenReturn(List.of(2));
+
+        List<RemovalResultDTO> result = service.removeMetalRolls(List.of(1, 2, 3, 1, 4));
+
+        assertThat(result.stream().map(RemovalResultDTO::getOutcome).toList()).isEqualTo(List.of(
+                RemovalOutcome.REMOVED, RemovalOutcome.ALREADY_REMOVED,
+                RemovalOutcome.REMOVED, RemovalOutcome.NOT_FOUND));
+        verify(inventoryService).recordChange(LocalDate.now(), 0, 0.0, 2, 3.5);
+        verify(changeFeed).rollsRemoved(List.of(1, 3));
+    }
+
+    @Test
+    void shouldRejectChangesWaitOutOfRange() {
+        assertThatThrownBy(() -> service.awaitRollChanges(0, 100, Duration.ofMinutes(5)))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Wait must be between 0 and 60 seconds.");
+        verifyNoInteractions(changeFeed);
     }
 
+    @Test
+    void shouldRejectNonPositiveIdInRemovalBatch() {
+        assertThatThrownBy(() -> service.removeMetalRolls(List.of(5, 0)))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Id must be positive numbers.");
+        verifyNoInteractions(repository);
+    }
 
+    @Test
+    void shouldRejectUnfilteredBulkRemoval() {
+        assertThatThrownBy(() -> service.removeMatchingMetalRolls(new FilterDTO()))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("At least one filter is required to remove rolls.");
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldRemoveRollsMatchingFilterWithOneUpdate() {
+        FilterDTO filter = new FilterDTO();
+        filter.setWeightFrom(1.0);
+        filter.setWeightTo(2.0);
+        when(repository.removeMatching(any(MetalRollSpecification.class), any(LocalDate.class),
+                eq(MetalRollServiceImpl.MAX_BATCH_SIZE + 1))).thenAnswer(inv -> {
+            MetalRollSpecification spec = inv.getArgument(0);
+            assertThat(spec.getWeightFrom()).isEqualTo(1.0);
+            return List.of(new RemovedRoll(8, 2.0), new RemovedRoll(7, 1.5));
+        });
+
+        List<RemovalResultDTO> result = service.removeMatchingMetalRolls(filter);
+
+        assertThat(result.stream().map(RemovalResultDTO::getId).toList()).isEqualTo(List.of(7, 8));
+        assertThat(result.get(0).getOutcome()).isEqualTo(RemovalOutcome.REMOVED);
+        assertThat(result.get(1).getOutcome()).isEqualTo(RemovalOutcome.REMOVED);
+        verify(inventoryService).recordChange(LocalDate.now(), 0, 0.0, 2, 3.5);
+        verify(repository, never()).findAll(any(MetalRollSpecification.class));
+    }
+
+    @Test
+    void shouldRejectBulkRemovalMatchingMoreThanBatchSize() {
+        FilterDTO filter = new FilterDTO();
+        filter.setWeightFrom(1.0);
+        filter.setWeightTo(2.0);
+        List<RemovedRoll> matching = IntStream.rangeClosed(1, MetalRollServiceImpl.MAX_BATCH_SIZE + 1)
+                .mapToObj(id -> new RemovedRoll(id, 1.0))
+                .toList();
+        when(repository.removeMatching(any(MetalRollSpecification.class), any(LocalDate.class), anyInt()))
+                .thenReturn(matching);
+
+        assertThatThrownBy(() -> service.removeMatchingMetalRolls(filter))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Filter matches more than " + MetalRollServiceImpl.MAX_BATCH_SIZE + " rolls.");
+        verify(inventoryService, never()).recordChange(any(LocalDate.class), anyLong(), anyDouble(), anyLong(), anyDouble());
+    }
 }
@@ -0,0 +1,108 @@
+import com.warehouse.store.RangeFilterKernel;
+import com.warehouse.store.RollRanges;
+import com.warehouse.store.ScalarRangeFilterKernel;
+import com.warehouse.store.VectorRangeFilterKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class RangeFilterKernelTest {
+
+    private static final int ROWS = 1037;
+
+    private final Random random = new Random(5);
+
+    private final double[] lengths = new double[ROWS];
+
+    private final double[] weights = new double[ROWS];
+
+    private final int[] addedDays = new int[ROWS];
+
+    private final int[] removedDays = new int[ROWS];
+
+    {
+        for (int i = 0; i < ROWS; i++) {
+            // coarse values, so range bounds often hit a value exactly
+            lengths[i] = random.nextInt(40) / 2.0;
+            weights[i] = random.nextInt(40) / 4.0;
+            addedDays[i] = 20000 + random.nextInt(60);
+            removedDays[i] = random.nextInt(3) == 0 ? Integer.MAX_VALUE : addedDays[i] + random.nextInt(30);
+        }
+    }
+
+    @Test
+    void shouldMatchEveryRowWithoutRanges() {
+        int[] selection = new int[ROWS];
+
+        int count = new ScalarRangeFilterKernel().select(lengths, weights, addedDays, removedDays,
+                0, ROWS, RollRanges.ALL, selection);
+
+        assertThat(count).isEqualTo(ROWS);
+        assertThat(selection[ROWS - 1]).isEqualTo(ROWS - 1);
+    }
+
+    @Test
+    void shouldSelectSameRowsAsPlainComparisons() {
+        RangeFilterKernel kernel = RangeFilterKernel.best();
+        for (int round = 0; round < 200; round++) {
+            RollRanges ranges = randomRanges();
+            int from = random.nextInt(50);
+            int to = ROWS - random.nextInt(50);
+
+            assertThat(select(kernel, from, to, ranges)).isEqualTo(expected(from, to, ranges));
+        }
+    }
+
+    @Test
+    void shouldGiveIdenticalResultsWithVectorKernel() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent());
+        RangeFilterKernel scalar = new ScalarRangeFilterKernel();
+        RangeFilterKernel vector = new VectorRangeFilterKernel();
+
+        for (int round = 0; round < 200; round++) {
+            RollRanges ranges = randomRanges();
+            int from = random.nextInt(50);
+            int to = ROWS - random.nextInt(50);
+
+            assertThat(select(vector, from, to, ranges)).isEqualTo(select(scalar, from, to, ranges));
+        }
+    }
+
+    private RollRanges randomRanges() {
+        RollRanges all = RollRanges.ALL;
+        boolean byLength = random.nextBoolean();
+        boolean byWeight = random.nextBoolean();
+        boolean byAdded = random.nextBoolean();
+        int removedMode = random.nextInt(3);
+        double length = random.nextInt(40) / 2.0;
+        double weight = random.nextInt(40) / 4.0;
+        int added = 20000 + random.nextInt(60);
+        int removed = 20000 + random.nextInt(90);
+        return new RollRanges(
+                byLength ? length : all.lengthFrom(), byLength ? length + random.nextInt(10) : all.lengthTo(),
+                byWeight ? weight : all.weightFrom(), byWeight ? weight + random.nextInt(5) : all.weightTo(),
+                byAdded ? added : all.addedFrom(), byAdded ? added + random.nextInt(20) : all.addedTo(),
+                removedMode == 0 ? all.removedFrom() : removedMode == 1 ? removed : Integer.MAX_VALUE,
+                removedMode == 0 ? all.removedTo() : removedMode == 1 ? removed + random.nextInt(20) : Integer.MAX_VALUE);
+    }
+
+    private int[] select(RangeFilterKernel kernel, int from, int to, RollRanges ranges) {
+        int[] selection = new int[to - from];
+        int count = kernel.select(lengths, weights, addedDays, removedDays, from, to, ranges, selection);
+        return Arrays.copyOf(selection, count);
+    }
+
+    private int[] expected(int from, int to, RollRanges r) {
+        return IntStream.range(from, to)
+                .filter(i -> lengths[i] >= r.lengthFrom() && lengths[i] <= r.lengthTo())
+                .filter(i -> weights[i] >= r.weightFrom() && weights[i] <= r.weightTo())
+                .filter(i -> addedDays[i] >= r.addedFrom() && addedDays[i] <= r.addedTo())
+                .filter(i -> removedDays[i] >= r.removedFrom() && removedDays[i] <= r.removedTo())
+                .toArray();
+    }
+}
@@ -0,0 +1,125 @@
+import com.warehouse.entities.DailyInventory;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.repositories.DailyInventoryRepository;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.services.DailyInventoryServiceImpl;
+import com.warehouse.services.RollArchiveServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports the roll table of a PostgreSQL database, restores it into an emptied one and checks
+ * the rolls, the daily inventory and the id sequence. Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({RollArchiveServiceImpl.class, DailyInventoryServiceImpl.class})
+public class RollArchiveRoundTripTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RollArchiveRoundTripTest.class);
+
+    private static final int ROLLS = 100_003;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private RollArchiveServiceImpl archiveService;
+
+    @Autowired
+    private DailyInventoryServiceImpl inventoryService;
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Autowired
+    private DailyInventoryRepository inventoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void shouldRestoreRollsInventoryAndIdSequence() throws Exception {
+        repository.insertAll(generate(ROLLS));
+        // gaps in the ids, as removals by hand would leave
+        jdbcTemplate.update("DELETE FROM metalroll WHERE id % 7 = 0");
+        inventoryService.rebuild();
+        List<MetalRoll> rolls = repository.findAll(Sort.by("id"));
+        List<DailyInventory> inventory = inventoryRepository.findAll(Sort.by("inventoryDay"));
+        Path file = dir.resolve("rolls.bin");
+
+        assertThat(archiveService.exportRolls(file)).isEqualTo(rolls.size());
+
+        // a fresh database: empty tables and an id sequence starting over
+        jdbcTemplate.update("DELETE FROM metalroll");
+        jdbcTemplate.update("DELETE FROM daily_inventory");
+        jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence('metalroll', 'id'), 1, false)", Long.class);
+
+        long start = System.nanoTime();
+        assertThat(archiveService.importRolls(file)).isEqualTo(rolls.size());
+        log.info("Imported {} rolls in {} ms", rolls.size(), (System.nanoTime() - start) / 1_000_000);
+
+        assertThat(repository.findAll(Sort.by("id"))).isEqualTo(rolls);
+        assertThat(inventoryRepository.findAll(Sort.by("inventoryDay"))).isEqualTo(inventory);
+
+        // the sequence continues after the restored ids instead of colliding with them
+        int maxId = rolls.get(rolls.size() - 1).getId();
+        List<MetalRoll> added = repository.insertAll(new ArrayList<>(List.of(
+                new MetalRoll(5.0, 1.5, LocalDate.of(2026, 3, 10), null))));
+        assertThat(added.get(0).getId()).isEqualTo(maxId + 1);
+    }
+
+    private static List<MetalRoll> generate(int count) {
+        Random random = new Random(5);
+        LocalDate base = LocalDate.of(2016, 1, 1);
+        List<MetalRoll> rolls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate added = base.plusDays(random.nextInt(3650));
+            rolls.add(new MetalRoll(1 + random.nextDouble() * 100, 1 + random.nextDouble() * 50, added,
+                    random.nextBoolean() ? null : added.plusDays(random.nextInt(60))));
+        }
+        return rolls;
+    }
+}
@@ -0,0 +1,123 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.repositories.RollRowHandler;
+import com.warehouse.services.DailyInventoryService;
+import com.warehouse.services.RollArchiveServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RollArchiveServiceImplTest {
+
+    @Mock
+    private MetalRollRepository repository;
+
+    @Mock
+    private DailyInventoryService inventoryService;
+
+    @InjectMocks
+    private RollArchiveServiceImpl service;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void shouldRestoreExportedRollsInBatches() throws IOException {
+        List<MetalRoll> rolls = generate(25_003);
+        doAnswer(inv -> {
+            RollRowHandler handler = inv.getArgument(1);
+            rolls.forEach(r -> handler.accept(r.getId(), r.getLength(), r.getWeight(),
+                    r.getDateAdded(), r.getDateOfDeletion()));
+            return null;
+        }).when(repository).forEachRow(anyInt(), any());
+        Path file = dir.resolve("rolls.bin");
+
+        assertThat(service.exportRolls(file)).isEqualTo(25_003);
+
+        List<MetalRoll> restored = new ArrayList<>();
+        List<Integer> batchSizes = new ArrayList<>();
+        doAnswer(inv -> {
+            List<MetalRoll> batch = inv.getArgument(0);
+            batchSizes.add(batch.size());
+            batch.forEach(r -> restored.add(copy(r)));
+            return null;
+        }).when(repository).insertWithIds(anyList());
+
+        assertThat(service.importRolls(file)).isEqualTo(25_003);
+        assertThat(restored).isEqualTo(rolls);
+        assertThat(batchSizes).containsExactly(10_000, 10_000, 5_003);
+        verify(repository).restartIdSequence();
+        verify(inventoryService).rebuild();
+    }
+
+    @Test
+    void shouldRejectDumpOfFailedExport() {
+        List<MetalRoll> rolls = generate(50_000);
+        doAnswer(inv -> {
+            RollRowHandler handler = inv.getArgument(1);
+            rolls.forEach(r -> handler.accept(r.getId(), r.getLength(), r.getWeight(),
+                    r.getDateAdded(), r.getDateOfDeletion()));
+            throw new IllegalStateException("connection lost");
+        }).when(repository).forEachRow(anyInt(), any());
+        Path file = dir.resolve("rolls.bin");
+
+        assertThatThrownBy(() -> service.exportRolls(file)).hasMessage("connection lost");
+
+        assertThatThrownBy(() -> service.importRolls(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Roll dump is incomplete");
+        verify(repository, never()).insertWithIds(anyList());
+    }
+
+    @Test
+    void shouldImportOnlyIntoEmptyTable() {
+        when(repository.count()).thenReturn(3L);
+
+        assertThatThrownBy(() -> service.importRolls(dir.resolve("rolls.bin")))
+                .isInstanceOf(InvalidRollDataException.class)
+                .hasMessage("Rolls can only be imported into an empty table.");
+        verify(repository, never()).insertWithIds(anyList());
+    }
+
+    private static List<MetalRoll> generate(int count) {
+        Random random = new Random(5);
+        LocalDate base = LocalDate.of(2016, 1, 1);
+        List<MetalRoll> rolls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate added = base.plusDays(random.nextInt(3650));
+            MetalRoll roll = new MetalRoll(1 + random.nextDouble() * 100, 1 + random.nextDouble() * 50, added,
+                    random.nextBoolean() ? null : added.plusDays(random.nextInt(60)));
+            roll.setId(i * 2 + 1);
+            rolls.add(roll);
+        }
+        return rolls;
+    }
+
+    private static MetalRoll copy(MetalRoll roll) {
+        MetalRoll copy = new MetalRoll(roll.getLength(), roll.getWeight(), roll.getDateAdded(), roll.getDateOfDeletion());
+        copy.setId(roll.getId());
+        return copy;
+    }
+}
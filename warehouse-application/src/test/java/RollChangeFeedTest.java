@@ -0,0 +1,141 @@
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.entities.RollChange;
+import com.warehouse.entities.RollChangeType;
+import com.warehouse.repositories.RollChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RollChangeFeedTest {
+
+    private final List<RollChange> log = new CopyOnWriteArrayList<>();
+
+    private RollChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        RollChangeRepository repository = mock(RollChangeRepository.class);
+        when(repository.findBySeqGreaterThanOrderBySeq(anyLong(), any(Limit.class))).thenAnswer(inv -> {
+            long since = inv.getArgument(0);
+            Limit limit = inv.getArgument(1);
+            return log.stream().filter(c -> c.getSeq() > since).limit(limit.max()).toList();
+        });
+        doAnswer(inv -> {
+            RollChangeType type = inv.getArgument(0);
+            Collection<Integer> ids = inv.getArgument(1);
+            ids.forEach(id -> append(type, id));
+            return null;
+        }).when(repository).appendSnapshots(any(), any());
+        feed = new RollChangeFeed(repository, Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    void shouldDeliverLoggedAndLaterChangesInOrder() throws InterruptedException {
+        append(RollChangeType.ADDED, 1);
+        append(RollChangeType.ADDED, 2);
+        append(RollChangeType.REMOVED, 1);
+        BlockingQueue<List<RollChangeDTO>> batches = new LinkedBlockingQueue<>();
+
+        RollChangeFeed.Subscription subscription = feed.subscribe(0, 2, batches::add);
+
+        assertThat(seqs(batches.poll(5, TimeUnit.SECONDS))).containsExactly(1L, 2L);
+        assertThat(seqs(batches.poll(5, TimeUnit.SECONDS))).containsExactly(3L);
+
+        feed.rollsAdded(List.of(7));
+        List<RollChangeDTO> later = batches.poll(5, TimeUnit.SECONDS);
+        assertThat(seqs(later)).containsExactly(4L);
+        assertThat(later.get(0).getRoll().getId()).isEqualTo(7);
+
+        subscription.cancel();
+        feed.rollsRemoved(List.of(7));
+        assertThat(batches.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void shouldHoldBackChangesWhileSubscriptionIsPaused() throws InterruptedException {
+        append(RollChangeType.ADDED, 1);
+        BlockingQueue<List<RollChangeDTO>> batches = new LinkedBlockingQueue<>();
+        RollChangeFeed.Subscription[] paused = new RollChangeFeed.Subscription[1];
+        CountDownLatch subscribed = new CountDownLatch(1);
+
+        paused[0] = feed.subscribe(0, 1, batch -> {
+            batches.add(batch);
+            awaitQuietly(subscribed);
+            paused[0].pause();
+        });
+        subscribed.countDown();
+        assertThat(seqs(batches.poll(5, TimeUnit.SECONDS))).containsExactly(1L);
+
+        feed.rollsAdded(List.of(2, 3));
+        assertThat(batches.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        paused[0].resume();
+        assertThat(seqs(batches.poll(5, TimeUnit.SECONDS))).containsExactly(2L);
+    }
+
+    @Test
+    void shouldCompleteLongPollWithNextChange() throws Exception {
+        append(RollChangeType.ADDED, 1);
+
+        CompletableFuture<List<RollChangeDTO>> next = feed.nextChanges(1, 10, Duration.ofSeconds(10));
+        feed.rollsRemoved(List.of(1));
+
+        List<RollChangeDTO> changes = next.get(5, TimeUnit.SECONDS);
+        assertThat(seqs(changes)).containsExactly(2L);
+        assertThat(changes.get(0).getType()).isEqualTo(RollChangeType.REMOVED);
+    }
+
+    @Test
+    void shouldCompleteLongPollWithNothingAfterTimeout() throws Exception {
+        append(RollChangeType.ADDED, 1);
+
+        CompletableFuture<List<RollChangeDTO>> next = feed.nextChanges(1, 10, Duration.ofMillis(50));
+
+        assertThat(next.get(5, TimeUnit.SECONDS)).isEmpty();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void append(RollChangeType type, int rollId) {
+        RollChange change = new RollChange(type, rollId, 10.0, 2.0, LocalDate.of(2026, 3, 1),
+                type == RollChangeType.REMOVED ? LocalDate.of(2026, 3, 5) : null);
+        change.setSeq(log.size() + 1);
+        log.add(change);
+    }
+
+    private static List<Long> seqs(List<RollChangeDTO> changes) {
+        assertThat(changes).isNotNull();
+        return changes.stream().map(RollChangeDTO::getSeq).toList();
+    }
+}
@@ -0,0 +1,240 @@
+import com.warehouse.DTO.IngestStatus;
+import com.warehouse.DTO.IngestTicketDTO;
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.exceptions.IngestQueueFullException;
+import com.warehouse.exceptions.IngestTimeoutException;
+import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.ingest.IngestAcknowledgement;
+import com.warehouse.ingest.IngestTicket;
+import com.warehouse.ingest.RollIngestQueue;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.services.MetalRollService;
+import com.warehouse.services.MetalRollServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RollIngestQueueTest {
+
+    private final MetalRollService rollService = mock(MetalRollService.class);
+
+    // sizes of the batches the writer passed to the service
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    private RollIngestQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) {
+            queue.destroy();
+        }
+    }
+
+    @Test
+    void shouldWriteRollsQueuedDuringACommitAsOneBatch() throws InterruptedException {
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+        when(rollService.addMetalRolls(anyList())).thenAnswer(inv -> {
+            List<NewRollDTO> rolls = inv.getArgument(0);
+            if (batches.isEmpty()) {
+                firstBatchStarted.countDown();
+                releaseFirstBatch.await();
+            }
+            return save(rolls);
+        });
+        queue = newQueue(IngestAcknowledgement.COMMITTED, 100, Duration.ZERO);
+
+        IngestTicket first = queue.submit(1.0, 1.0);
+        assertThat(firstBatchStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<IngestTicket> queued = new ArrayList<>();
+        for (int i = 2; i <= 20; i++) {
+            queued.add(queue.submit((double) i, 1.0));
+        }
+        releaseFirstBatch.countDown();
+
+        assertThat(first.await().getLength()).isEqualTo(1.0);
+        for (int i = 0; i < queued.size(); i++) {
+            assertThat(queued.get(i).await().getLength()).isEqualTo(i + 2.0);
+        }
+        assertThat(batches).containsExactly(1, 19);
+    }
+
+    @Test
+    void shouldRefuseRollsWhenTheQueueIsFull() throws InterruptedException {
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(rollService.addMetalRolls(anyList())).thenAnswer(inv -> {
+            writerBusy.countDown();
+            releaseWriter.await();
+            return save(inv.getArgument(0));
+        });
+        queue = newQueue(IngestAcknowledgement.COMMITTED, 2, Duration.ofMillis(50));
+
+        // the first roll keeps its place while the writer blocks on it
+        queue.submit(1.0, 1.0);
+        assertThat(writerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        IngestTicket second = queue.submit(2.0, 1.0);
+
+        assertThatThrownBy(() -> queue.submit(3.0, 1.0)).isInstanceOf(IngestQueueFullException.class);
+        releaseWriter.countDown();
+        second.await();
+        // the places are given back once the batches have finished
+        assertThat(queue.submit(4.0, 1.0).await().getLength()).isEqualTo(4.0);
+    }
+
+    @Test
+    void shouldRejectInvalidRollsBeforeQueueing() {
+        queue = newQueue(IngestAcknowledgement.COMMITTED, 10, Duration.ZERO);
+
+        assertThatThrownBy(() -> queue.submit(0.0, 1.0)).isInstanceOf(InvalidRollDataException.class);
+        assertThatThrownBy(() -> queue.submit(1.0, null)).isInstanceOf(InvalidRollDataException.class);
+    }
+
+    @Test
+    void shouldTrackAcceptedRollsUntilTheirBatchFinishes() {
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(rollService.addMetalRolls(anyList()))
+                .thenAnswer(inv -> {
+                    releaseWriter.await();
+                    return save(inv.getArgument(0));
+                })
+                .thenThrow(new IllegalStateException("Connection refused"));
+        queue = newQueue(IngestAcknowledgement.ACCEPTED, 10, Duration.ZERO);
+
+        IngestTicket committed = queue.submit(5.0, 2.0);
+        assertThat(queue.getTicket(committed.getTrackingId()).getStatus()).isEqualTo(IngestStatus.PENDING);
+        releaseWriter.countDown();
+        committed.getResult().join();
+
+        IngestTicketDTO status = queue.getTicket(committed.getTrackingId());
+        assertThat(status.getStatus()).isEqualTo(IngestStatus.COMMITTED);
+        assertThat(status.getRoll().getLength()).isEqualTo(5.0);
+
+        IngestTicket failed = queue.submit(6.0, 2.0);
+        assertThatThrownBy(failed::await).hasMessage("Connection refused");
+        IngestTicketDTO failure = queue.getTicket(failed.getTrackingId());
+        assertThat(failure.getStatus()).isEqualTo(IngestStatus.FAILED);
+        assertThat(failure.getError()).isEqualTo("Connection refused");
+    }
+
+    @Test
+    void shouldWriteQueuedRollsBeforeShuttingDown() throws InterruptedException {
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(rollService.addMetalRolls(anyList())).thenAnswer(inv -> {
+            releaseWriter.await();
+            return save(inv.getArgument(0));
+        });
+        queue = newQueue(IngestAcknowledgement.COMMITTED, 10, Duration.ZERO);
+        IngestTicket first = queue.submit(1.0, 1.0);
+        IngestTicket second = queue.submit(2.0, 1.0);
+
+        releaseWriter.countDown();
+        queue.destroy();
+
+        assertThat(first.getResult()).isCompleted();
+        assertThat(second.getResult()).isCompleted();
+        assertThatThrownBy(() -> queue.submit(3.0, 1.0)).isInstanceOf(IngestQueueFullException.class);
+    }
+
+    @Test
+    void shouldFailTheBatchAndKeepWritingWhenTheServiceThrowsAnError() {
+        when(rollService.addMetalRolls(anyList()))
+                .thenThrow(new AssertionError("Unexpected row count"))
+                .thenAnswer(inv -> save(inv.getArgument(0)));
+        queue = newQueue(IngestAcknowledgement.COMMITTED, 10, Duration.ZERO);
+
+        IngestTicket failed = queue.submit(1.0, 1.0);
+        assertThatThrownBy(failed::await).isInstanceOf(AssertionError.class);
+
+        assertThat(queue.submit(2.0, 1.0).await().getLength()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldStopWaitingForABatchAfterTheAwaitTimeout() {
+        CountDownLatch releaseWriter = new CountDownLatch(1);
+        when(rollService.addMetalRolls(anyList())).thenAnswer(inv -> {
+            releaseWriter.await();
+            return save(inv.getArgument(0));
+        });
+        queue = new RollIngestQueue(rollService, new RollMetrics(new SimpleMeterRegistry()), true,
+                IngestAcknowledgement.COMMITTED, 10, 1000, Duration.ZERO, Duration.ofMinutes(10), Duration.ofMillis(100));
+
+        IngestTicket ticket = queue.submit(1.0, 1.0);
+
+        assertThatThrownBy(ticket::await).isInstanceOf(IngestTimeoutException.class);
+        releaseWriter.countDown();
+    }
+
+    @Test
+    void shouldRejectBatchesLargerThanTheServiceAccepts() {
+        assertThatThrownBy(() -> new RollIngestQueue(rollService, new RollMetrics(new SimpleMeterRegistry()), true,
+                IngestAcknowledgement.COMMITTED, 100_000, MetalRollServiceImpl.MAX_BATCH_SIZE + 1, Duration.ZERO,
+                Duration.ofMinutes(10), Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max-batch-size");
+    }
+
+    @Test
+    void shouldFinishEveryTicketSubmittedWhileShuttingDown() throws Exception {
+        when(rollService.addMetalRolls(anyList())).thenAnswer(inv -> save(inv.getArgument(0)));
+        queue = newQueue(IngestAcknowledgement.COMMITTED, 100_000, Duration.ZERO);
+        List<IngestTicket> submitted = new CopyOnWriteArrayList<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread producer = new Thread(() -> {
+                try {
+                    while (true) {
+                        submitted.add(queue.submit(1.0, 1.0));
+                    }
+                } catch (IngestQueueFullException e) {
+                    // shut down
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(50);
+
+        queue.destroy();
+        for (Thread producer : producers) {
+            producer.join(5000);
+        }
+
+        assertThat(submitted).isNotEmpty().allMatch(ticket -> ticket.getResult().isDone());
+    }
+
+    private RollIngestQueue newQueue(IngestAcknowledgement acknowledgement, int capacity, Duration offerTimeout) {
+        return new RollIngestQueue(rollService, new RollMetrics(new SimpleMeterRegistry()), true,
+                acknowledgement, capacity, 1000, offerTimeout, Duration.ofMinutes(10), Duration.ofSeconds(5));
+    }
+
+    private List<MetalRollDTO> save(List<NewRollDTO> rolls) {
+        batches.add(rolls.size());
+        List<MetalRollDTO> saved = new ArrayList<>();
+        for (NewRollDTO r : rolls) {
+            MetalRoll roll = new MetalRoll(r.getLength(), r.getWeight(), LocalDate.of(2026, 3, 10), null);
+            roll.setId(nextId.getAndIncrement());
+            saved.add(new MetalRollDTO(roll));
+        }
+        return saved;
+    }
+}
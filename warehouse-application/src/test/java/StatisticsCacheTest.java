@@ -0,0 +1,100 @@
+import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.DTO.StatisticsCacheStatsDTO;
+import com.warehouse.statistics.StatisticsCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatisticsCacheTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2026, 1, 1);
+
+    private static final LocalDate FEBRUARY = LocalDate.of(2026, 2, 1);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Supplier<RollStatisticsDTO> loader = () -> {
+        loads.incrementAndGet();
+        return new RollStatisticsDTO();
+    };
+
+    @Test
+    void shouldServeRepeatedPeriodFromCache() {
+        StatisticsCache cache = new StatisticsCache(true, 10, Duration.ofMinutes(5));
+
+        RollStatisticsDTO first = cache.get(JANUARY, JANUARY.plusDays(30), loader);
+        RollStatisticsDTO second = cache.get(JANUARY, JANUARY.plusDays(30), loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        StatisticsCacheStatsDTO stats = cache.getStats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInvalidateOnlyPeriodsEndingOnOrAfterChangedDay() {
+        StatisticsCache cache = new StatisticsCache(true, 10, Duration.ofMinutes(5));
+        cache.get(JANUARY, JANUARY.plusDays(30), loader);
+        cache.get(FEBRUARY, FEBRUARY.plusDays(27), loader);
+
+        cache.invalidateFrom(FEBRUARY.plusDays(10));
+        cache.get(JANUARY, JANUARY.plusDays(30), loader);
+        cache.get(FEBRUARY, FEBRUARY.plusDays(27), loader);
+
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(cache.getStats().getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotStoreResultComputedBeforeInvalidation() {
+        StatisticsCache cache = new StatisticsCache(true, 10, Duration.ofMinutes(5));
+
+        cache.get(JANUARY, JANUARY.plusDays(30), () -> {
+            cache.invalidateFrom(JANUARY);
+            return new RollStatisticsDTO();
+        });
+
+        assertThat(cache.getStats().getSize()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedPeriodAboveMaxSize() {
+        StatisticsCache cache = new StatisticsCache(true, 2, Duration.ofMinutes(5));
+        cache.get(JANUARY, JANUARY, loader);
+        cache.get(FEBRUARY, FEBRUARY, loader);
+        cache.get(JANUARY, JANUARY, loader);
+        cache.get(JANUARY.plusDays(5), JANUARY.plusDays(5), loader);
+
+        cache.get(JANUARY, JANUARY, loader);
+        cache.get(FEBRUARY, FEBRUARY, loader);
+
+        assertThat(loads.get()).isEqualTo(4);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() {
+        StatisticsCache cache = new StatisticsCache(true, 10, Duration.ZERO);
+        cache.get(JANUARY, JANUARY, loader);
+        cache.get(JANUARY, JANUARY, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAlwaysLoadWhenDisabled() {
+        StatisticsCache cache = new StatisticsCache(false, 10, Duration.ofMinutes(5));
+        cache.get(JANUARY, JANUARY, loader);
+        cache.get(JANUARY, JANUARY, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getStats().getHits()).isZero();
+    }
+}
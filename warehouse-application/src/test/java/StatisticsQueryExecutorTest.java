@@ -0,0 +1,112 @@
+import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.statistics.StatisticsQueryExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class StatisticsQueryExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void shouldRunQueryOnCallerThreadOnlyWhenNeeded() {
+        StatisticsQueryExecutor executor = new StatisticsQueryExecutor(false);
+        AtomicInteger runs = new AtomicInteger();
+        Thread caller = Thread.currentThread();
+
+        try (StatisticsQueryExecutor.Scope scope = executor.open()) {
+            Supplier<Thread> unused = scope.fork(() -> {
+                runs.incrementAndGet();
+                return Thread.currentThread();
+            });
+            Supplier<Thread> used = scope.fork(() -> {
+                runs.incrementAndGet();
+                return Thread.currentThread();
+            });
+
+            assertThat(used.get()).isSameAs(caller);
+        }
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRunSubmittedQueriesConcurrently() {
+        StatisticsQueryExecutor executor = new StatisticsQueryExecutor(pool);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Supplier<Boolean> query = () -> {
+            bothStarted.countDown();
+            try {
+                return bothStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        try (StatisticsQueryExecutor.Scope scope = executor.open()) {
+            Supplier<Boolean> first = scope.fork(query);
+            Supplier<Boolean> second = scope.fork(query);
+
+            assertThat(first.get()).isTrue();
+            assertThat(second.get()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldRethrowQueryFailureUnwrapped() {
+        StatisticsQueryExecutor executor = new StatisticsQueryExecutor(pool);
+
+        try (StatisticsQueryExecutor.Scope scope = executor.open()) {
+            Supplier<Object> failing = scope.fork(() -> {
+                throw new InvalidRollDataException("broken");
+            });
+
+            assertThatThrownBy(failing::get)
+                    .isInstanceOf(InvalidRollDataException.class)
+                    .hasMessage("broken");
+        }
+    }
+
+    @Test
+    void shouldCancelAndAwaitQueriesStillRunningWhenScopeCloses() throws InterruptedException {
+        StatisticsQueryExecutor executor = new StatisticsQueryExecutor(pool);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+
+        // the caller fails before it reads the forked result, as when the aggregate query throws
+        assertThatThrownBy(() -> {
+            try (StatisticsQueryExecutor.Scope scope = executor.open()) {
+                scope.fork(() -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                    finished.set(true);
+                    return null;
+                });
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+                throw new IllegalStateException("aggregate failed");
+            }
+        }).hasMessage("aggregate failed");
+
+        assertThat(interrupted).isTrue();
+        assertThat(finished).isTrue();
+    }
+}
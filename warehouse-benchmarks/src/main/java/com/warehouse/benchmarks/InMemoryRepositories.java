@@ -0,0 +1,193 @@
+package com.warehouse.benchmarks;
+
+import com.warehouse.entities.DailyInventory;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.projections.DailyRollDelta;
+import com.warehouse.projections.RollMeasures;
+import com.warehouse.projections.RollPeriodAggregate;
+import com.warehouse.repositories.DailyInventoryRepository;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.repositories.RollChangeRepository;
+import com.warehouse.repositories.RollRowHandler;
+import com.warehouse.specifications.MetalRollSpecification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Repository stubs over plain collections. Only the methods the benchmarked service paths call
+ * are implemented; queries the database would run are emulated with a scan, the rest throw.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {}
+
+    static MetalRollRepository rolls(List<MetalRoll> rolls) {
+        return proxy(MetalRollRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findAll" -> {
+                if (args == null || args.length != 1 || !(args[0] instanceof MetalRollSpecification spec)) {
+                    throw new UnsupportedOperationException(method.toString());
+                }
+                yield rolls.stream().filter(spec::matches).toList();
+            }
+            case "forEachRow" -> {
+                RollRowHandler handler = (RollRowHandler) args[1];
+                rolls.forEach(r -> handler.accept(r.getId(), r.getLength(), r.getWeight(),
+                        r.getDateAdded(), r.getDateOfDeletion()));
+                yield null;
+            }
+            case "findActiveInPeriod" -> activeInPeriod(rolls, (LocalDate) args[0], (LocalDate) args[1]).toList();
+            case "streamMeasuresInPeriod" -> activeInPeriod(rolls, (LocalDate) args[0], (LocalDate) args[1])
+                    .map(r -> new RollMeasures(r.getLength(), r.getWeight(), r.getDateAdded(), r.getDateOfDeletion()));
+            case "aggregateInPeriod" -> aggregate(rolls, (LocalDate) args[0], (LocalDate) args[1]);
+            case "findDailyDeltas" -> dailyDeltas(rolls);
+            case "count" -> (long) rolls.size();
+            case "toString" -> "InMemoryMetalRollRepository";
+            default -> throw new UnsupportedOperationException(method.toString());
+        });
+    }
+
+    static DailyInventoryRepository inventory() {
+        TreeMap<LocalDate, DailyInventory> rows = new TreeMap<>();
+        return proxy(DailyInventoryRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findFirstByInventoryDayLessThanOrderByInventoryDayDesc" ->
+                    Optional.ofNullable(rows.lowerEntry((LocalDate) args[0])).map(e -> e.getValue());
+            case "findByInventoryDayBetweenOrderByInventoryDay" ->
+                    new ArrayList<>(rows.subMap((LocalDate) args[0], true, (LocalDate) args[1], true).values());
+            case "saveAll" -> {
+                List<DailyInventory> saved = new ArrayList<>();
+                for (Object row : (Iterable<?>) args[0]) {
+                    DailyInventory inventory = (DailyInventory) row;
+                    rows.put(inventory.getInventoryDay(), inventory);
+                    saved.add(inventory);
+                }
+                yield saved;
+            }
+            case "deleteAllInBatch" -> {
+                rows.clear();
+                yield null;
+            }
+            case "count" -> (long) rows.size();
+            case "toString" -> "InMemoryDailyInventoryRepository";
+            default -> throw new UnsupportedOperationException(method.toString());
+        });
+    }
+
+    // an empty change log: the benchmarks do not write
+    static RollChangeRepository changes() {
+        return proxy(RollChangeRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "findLastSeq" -> 0L;
+            case "findBySeqGreaterThanOrderBySeq" -> List.of();
+            case "toString" -> "InMemoryRollChangeRepository";
+            default -> throw new UnsupportedOperationException(method.toString());
+        });
+    }
+
+    static PlatformTransactionManager transactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private static Stream<MetalRoll> activeInPeriod(List<MetalRoll> rolls, LocalDate start, LocalDate end) {
+        return rolls.stream()
+                .filter(r -> !r.getDateAdded().isAfter(end))
+                .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(start));
+    }
+
+    private static RollPeriodAggregate aggregate(List<MetalRoll> rolls, LocalDate start, LocalDate end) {
+        long added = 0;
+        long removed = 0;
+        long active = 0;
+        double sumLength = 0.0;
+        double minLength = Double.POSITIVE_INFINITY;
+        double maxLength = Double.NEGATIVE_INFINITY;
+        double sumWeight = 0.0;
+        double minWeight = Double.POSITIVE_INFINITY;
+        double maxWeight = Double.NEGATIVE_INFINITY;
+        Long minInterval = null;
+        Long maxInterval = null;
+
+        for (MetalRoll roll : rolls) {
+            LocalDate deleted = roll.getDateOfDeletion();
+            if (roll.getDateAdded().isAfter(end) || (deleted != null && deleted.isBefore(start))) {
+                continue;
+            }
+            active++;
+            if (!roll.getDateAdded().isBefore(start)) {
+                added++;
+            }
+            sumLength += roll.getLength();
+            minLength = Math.min(minLength, roll.getLength());
+            maxLength = Math.max(maxLength, roll.getLength());
+            sumWeight += roll.getWeight();
+            minWeight = Math.min(minWeight, roll.getWeight());
+            maxWeight = Math.max(maxWeight, roll.getWeight());
+            if (deleted != null) {
+                if (!deleted.isAfter(end)) {
+                    removed++;
+                }
+                long interval = ChronoUnit.DAYS.between(roll.getDateAdded(), deleted);
+                minInterval = minInterval == null ? interval : Math.min(minInterval, interval);
+                maxInterval = maxInterval == null ? interval : Math.max(maxInterval, interval);
+            }
+        }
+
+        if (active == 0) {
+            return new RollPeriodAggregate(0L, 0L, 0L, null, null, null, null, null, null, null, null, null);
+        }
+        return new RollPeriodAggregate(added, removed, active,
+                sumLength / active, minLength, maxLength,
+                sumWeight / active, minWeight, maxWeight, sumWeight,
+                minInterval, maxInterval);
+    }
+
+    private static List<DailyRollDelta> dailyDeltas(List<MetalRoll> rolls) {
+        TreeMap<LocalDate, double[]> additions = new TreeMap<>();
+        TreeMap<LocalDate, double[]> removals = new TreeMap<>();
+        for (MetalRoll roll : rolls) {
+            accumulate(additions, roll.getDateAdded(), roll.getWeight());
+            if (roll.getDateOfDeletion() != null) {
+                accumulate(removals, roll.getDateOfDeletion(), roll.getWeight());
+            }
+        }
+
+        List<DailyRollDelta> deltas = new ArrayList<>(additions.size() + removals.size());
+        additions.forEach((day, sum) -> deltas.add(new DailyRollDelta(day, (long) sum[0], sum[1])));
+        removals.forEach((day, sum) -> deltas.add(new DailyRollDelta(day, -(long) sum[0], -sum[1])));
+        return deltas;
+    }
+
+    private static void accumulate(TreeMap<LocalDate, double[]> byDay, LocalDate day, double weight) {
+        double[] sum = byDay.computeIfAbsent(day, d -> new double[2]);
+        sum[0]++;
+        sum[1] += weight;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,113 @@
+package com.warehouse.benchmarks;
+
+import com.warehouse.DTO.FilterDTO;
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.RollPercentilesDTO;
+import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.services.DailyInventoryServiceImpl;
+import com.warehouse.services.MetalRollServiceImpl;
+import com.warehouse.statistics.StatisticsCache;
+import com.warehouse.statistics.StatisticsQueryExecutor;
+import com.warehouse.store.ColumnarRollStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-side cost of the read paths over an in-memory repository. The statistics cache is
+ * disabled so every call computes; database time is not part of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules", "jdk.incubator.vector"})
+public class MetalRollServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int rolls;
+
+    @Param({"1", "30", "365", "1826"})
+    private int periodDays;
+
+    // "columnar" serves filters and statistics from ColumnarRollStore
+    @Param({"repository", "columnar"})
+    private String source;
+
+    private MetalRollServiceImpl service;
+
+    private DailyInventoryServiceImpl inventoryService;
+
+    private FilterDTO filter;
+
+    private LocalDate periodStart;
+
+    private LocalDate periodEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MetalRollRepository repository = InMemoryRepositories.rolls(RollDataset.generate(rolls, 42));
+        inventoryService = new DailyInventoryServiceImpl(InMemoryRepositories.inventory(), repository);
+        inventoryService.rebuild();
+        RollChangeFeed changeFeed = new RollChangeFeed(InMemoryRepositories.changes(), Duration.ZERO);
+        ColumnarRollStore rollStore = new ColumnarRollStore("columnar".equals(source), repository, changeFeed,
+                InMemoryRepositories.transactionManager());
+        rollStore.afterSingletonsInstantiated();
+        service = new MetalRollServiceImpl(repository, inventoryService, new StatisticsCache(false, 0, Duration.ZERO),
+                new StatisticsQueryExecutor(false), rollStore, changeFeed,
+                new RollMetrics(new SimpleMeterRegistry()));
+
+        periodEnd = RollDataset.LAST_DAY;
+        periodStart = periodEnd.minusDays(periodDays - 1);
+        filter = new FilterDTO();
+        filter.setAddedFrom(periodStart);
+        filter.setAddedTo(periodEnd);
+    }
+
+    @Benchmark
+    public List<MetalRollDTO> getFilteredMetalRolls() {
+        return service.getFilteredMetalRolls(filter);
+    }
+
+    @Benchmark
+    public List<MetalRollDTO> getActiveMetalRolls() {
+        return service.getActiveMetalRolls(periodStart);
+    }
+
+    @Benchmark
+    public RollStatisticsDTO getStatistics() {
+        return service.getStatistics(periodStart, periodEnd);
+    }
+
+    @Benchmark
+    public RollPercentilesDTO getPercentiles() {
+        return service.getPercentiles(periodStart, periodEnd);
+    }
+
+    // MetalRollServiceImpl.calculateMinMax is private; this is the same call it makes.
+    @Benchmark
+    public RollStatisticsDTO calculateMinMax() {
+        RollStatisticsDTO stats = new RollStatisticsDTO();
+        inventoryService.getOccupancy(periodStart, periodEnd).applyTo(stats);
+        return stats;
+    }
+}
@@ -0,0 +1,84 @@
+package com.warehouse.benchmarks;
+
+import com.warehouse.store.RangeFilterKernel;
+import com.warehouse.store.RollRanges;
+import com.warehouse.store.ScalarRangeFilterKernel;
+import com.warehouse.store.VectorRangeFilterKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range filtering of the columnar store over 1 000 000 rows, scalar against vectorized.
+ * {@code selectivity} is the approximate share of rows that match.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class RangeFilterKernelBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private static final int BLOCK_SIZE = 4096;
+
+    @Param({"scalar", "vector"})
+    private String kernel;
+
+    @Param({"0.01", "0.5"})
+    private double selectivity;
+
+    private RangeFilterKernel filter;
+
+    private RollRanges ranges;
+
+    private final double[] lengths = new double[ROWS];
+
+    private final double[] weights = new double[ROWS];
+
+    private final int[] addedDays = new int[ROWS];
+
+    private final int[] removedDays = new int[ROWS];
+
+    private final int[] selection = new int[BLOCK_SIZE];
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filter = "vector".equals(kernel) ? new VectorRangeFilterKernel() : new ScalarRangeFilterKernel();
+        Random random = new Random(42);
+        for (int i = 0; i < ROWS; i++) {
+            lengths[i] = random.nextDouble();
+            weights[i] = random.nextDouble();
+            addedDays[i] = random.nextInt(1000);
+            removedDays[i] = addedDays[i] + random.nextInt(100);
+        }
+        // length and weight each keep sqrt(selectivity) of the rows, independently
+        double share = Math.sqrt(selectivity);
+        ranges = new RollRanges(0, share, 1 - share, 1,
+                Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int select() {
+        int matches = 0;
+        for (int from = 0; from < ROWS; from += BLOCK_SIZE) {
+            matches += filter.select(lengths, weights, addedDays, removedDays,
+                    from, Math.min(from + BLOCK_SIZE, ROWS), ranges, selection);
+        }
+        return matches;
+    }
+}
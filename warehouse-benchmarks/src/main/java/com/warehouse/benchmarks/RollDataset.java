@@ -0,0 +1,40 @@
+package com.warehouse.benchmarks;
+
+import com.warehouse.entities.MetalRoll;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic roll history: additions spread evenly over five years up to {@link #LAST_DAY},
+ * each roll kept in stock for up to half a year. Rolls whose removal would fall after the
+ * last day are still in stock.
+ */
+final class RollDataset {
+
+    static final LocalDate LAST_DAY = LocalDate.of(2026, 1, 1);
+
+    static final int HISTORY_DAYS = 5 * 365 + 1;
+
+    private static final int MAX_STORAGE_DAYS = 180;
+
+    private RollDataset() {}
+
+    static List<MetalRoll> generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate firstDay = LAST_DAY.minusDays(HISTORY_DAYS - 1);
+
+        List<MetalRoll> rolls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate added = firstDay.plusDays(random.nextInt(HISTORY_DAYS));
+            LocalDate removed = added.plusDays(random.nextInt(MAX_STORAGE_DAYS + 1));
+            MetalRoll roll = new MetalRoll(1 + random.nextInt(400) / 4.0, 1 + random.nextInt(200) / 8.0,
+                    added, removed.isAfter(LAST_DAY) ? null : removed);
+            roll.setId(i + 1);
+            rolls.add(roll);
+        }
+        return rolls;
+    }
+}
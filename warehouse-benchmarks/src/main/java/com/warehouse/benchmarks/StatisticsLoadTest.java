@@ -0,0 +1,169 @@
+package com.warehouse.benchmarks;
+
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.metrics.RollMetrics;
+import com.warehouse.repositories.DailyInventoryRepository;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.services.DailyInventoryServiceImpl;
+import com.warehouse.services.MetalRollServiceImpl;
+import com.warehouse.statistics.StatisticsCache;
+import com.warehouse.statistics.StatisticsQueryExecutor;
+import com.warehouse.store.ColumnarRollStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test of {@code getStatistics} in the two execution modes: thread-per-request on
+ * a pool of 200 platform threads (Tomcat's default) with the queries one after another, and one
+ * virtual thread per request with the queries forked by {@link StatisticsQueryExecutor}.
+ * <p>
+ * The database is simulated: the period aggregate and the daily inventory read each hold one of
+ * {@code connections} permits for a fixed time, as a connection pool of that size in front of a
+ * database answering in that time would. Requests arrive at a fixed rate and latency is counted
+ * from the scheduled arrival, so time spent queued for a thread or a connection is included.
+ * <pre>
+ * java -cp benchmarks.jar com.warehouse.benchmarks.StatisticsLoadTest [rate/s] [seconds] [connections] [aggregateMs] [occupancyMs]
+ * </pre>
+ */
+public class StatisticsLoadTest {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final int ROLLS = 10_000;
+
+    private static final int PERIOD_DAYS = 30;
+
+    public static void main(String[] args) throws InterruptedException {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long aggregateMillis = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        long occupancyMillis = args.length > 4 ? Long.parseLong(args[4]) : 15;
+
+        System.out.printf("rate=%d/s duration=%ds connections=%d aggregate=%dms occupancy=%dms%n",
+                rate, seconds, connections, aggregateMillis, occupancyMillis);
+        for (String mode : new String[]{"platform", "virtual"}) {
+            Semaphore pool = new Semaphore(connections, true);
+            MetalRollServiceImpl service = service(mode, pool, aggregateMillis, occupancyMillis);
+            ExecutorService platformThreads = Executors.newFixedThreadPool(PLATFORM_THREADS);
+            Executor requests = "platform".equals(mode) ? platformThreads : virtualThreads("request-");
+
+            run(service, requests, rate, Math.max(1, seconds / 5));
+            Result result = run(service, requests, rate, seconds);
+            platformThreads.shutdown();
+            System.out.printf("%-8s p50=%6.1fms p99=%6.1fms p99.9=%6.1fms max=%6.1fms throughput=%5.0f/s peak in flight=%d%n",
+                    mode, result.percentile(0.50), result.percentile(0.99), result.percentile(0.999),
+                    result.percentile(1.0), result.throughput, result.peakInFlight);
+        }
+    }
+
+    private static MetalRollServiceImpl service(String mode, Semaphore pool, long aggregateMillis, long occupancyMillis) {
+        MetalRollRepository rolls = InMemoryRepositories.rolls(RollDataset.generate(ROLLS, 42));
+        DailyInventoryRepository inventory = InMemoryRepositories.inventory();
+        new DailyInventoryServiceImpl(inventory, rolls).rebuild();
+
+        MetalRollRepository slowRolls = withLatency(MetalRollRepository.class, rolls, pool,
+                Map.of("aggregateInPeriod", aggregateMillis));
+        DailyInventoryRepository slowInventory = withLatency(DailyInventoryRepository.class, inventory, pool,
+                Map.of("findByInventoryDayBetweenOrderByInventoryDay", occupancyMillis));
+        StatisticsQueryExecutor queryExecutor = "platform".equals(mode)
+                ? new StatisticsQueryExecutor((Executor) null)
+                : new StatisticsQueryExecutor(virtualThreads("statistics-"));
+        return new MetalRollServiceImpl(slowRolls, new DailyInventoryServiceImpl(slowInventory, slowRolls),
+                new StatisticsCache(false, 0, Duration.ZERO), queryExecutor,
+                new ColumnarRollStore(false, null, null, null), new RollChangeFeed(null, Duration.ZERO),
+                new RollMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static Result run(MetalRollServiceImpl service, Executor requests, int rate, int seconds)
+            throws InterruptedException {
+        int count = rate * seconds;
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long[] latencies = new long[count];
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        SplittableRandom random = new SplittableRandom(7);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            long arrival = start + i * interval;
+            long wait = arrival - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int request = i;
+            LocalDate periodEnd = RollDataset.LAST_DAY.minusDays(random.nextInt(RollDataset.HISTORY_DAYS - PERIOD_DAYS));
+            requests.execute(() -> {
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    service.getStatistics(periodEnd.minusDays(PERIOD_DAYS - 1), periodEnd);
+                } finally {
+                    inFlight.decrementAndGet();
+                    latencies[request] = System.nanoTime() - arrival;
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        return new Result(latencies, count / elapsedSeconds, peakInFlight.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T withLatency(Class<T> type, T delegate, Semaphore pool, Map<String, Long> latencyMillis) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Long millis = latencyMillis.get(method.getName());
+            if (millis == null) {
+                return invoke(method, delegate, args);
+            }
+            pool.acquire();
+            try {
+                Thread.sleep(millis);
+                return invoke(method, delegate, args);
+            } finally {
+                pool.release();
+            }
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Executor virtualThreads(String prefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private record Result(long[] sortedLatencies, double throughput, int peakInFlight) {
+
+        double percentile(double p) {
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(p * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.warehouse.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/** Measures how far a replica is behind the primary. */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * Time since the last replayed transaction of a PostgreSQL standby. A standby that has
+     * replayed all WAL it received is not behind, however long ago the primary last wrote, and
+     * a server that is not in recovery is not a replica at all, so both count as no lag.
+     */
+    ReplicaLagProbe POSTGRES = replica -> {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+                     "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                     "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END")) {
+            rs.next();
+            return Duration.ofMillis((long) (rs.getDouble(1) * 1000));
+        }
+    };
+
+    Duration lagOf(DataSource replica) throws SQLException;
+}
@@ -0,0 +1,154 @@
+package com.warehouse.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends the connections of read-only transactions to the replicas in turn, and all others to
+ * the primary. A replica is left out while its replication lag is above the limit or it cannot
+ * be reached; with none left, read-only transactions go to the primary as well. Replicas are
+ * left out until their first check. The transaction is only marked read-only after it has
+ * begun, so the data source must be used through a {@link LazyConnectionDataSourceProxy},
+ * which takes the connection at the first statement. Reads that must see every committed
+ * write run in {@link #onPrimary}. Closing it closes the data sources.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final Map<String, DataSource> replicas = new HashMap<>();
+
+    private final ReplicaLagProbe lagProbe;
+
+    private final Duration maxLag;
+
+    // keys of the replicas that passed their last check, replaced as a whole
+    private volatile List<String> usableReplicas = List.of();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private ScheduledExecutorService checker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagProbe lagProbe,
+                                    Duration maxLag) {
+        this.primary = primary;
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.put("replica-" + i, replicas.get(i));
+        }
+
+        Map<Object, Object> targets = new HashMap<>(this.replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /** Checks the replicas now and then every {@code interval} on a background thread. */
+    public synchronized void startChecks(Duration interval) {
+        checkReplicas();
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "replica-lag-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        checker.scheduleWithFixedDelay(this::checkReplicas, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Measures the lag of every replica and routes reads only to those within the limit. */
+    public void checkReplicas() {
+        List<String> usable = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            String key = replica.getKey();
+            boolean wasUsable = usableReplicas.contains(key);
+            try {
+                Duration lag = lagProbe.lagOf(replica.getValue());
+                if (lag.compareTo(maxLag) <= 0) {
+                    usable.add(key);
+                    if (!wasUsable) {
+                        log.info("Routing read-only transactions to {} (lag {})", key, lag);
+                    }
+                } else if (wasUsable) {
+                    log.warn("{} is {} behind the primary, reading from the others", key, lag);
+                }
+            } catch (Exception e) {
+                if (wasUsable) {
+                    log.warn("{} cannot be checked, reading from the others", key, e);
+                }
+            }
+        }
+        usable.sort(null);
+        usableReplicas = List.copyOf(usable);
+    }
+
+    /** Keys of the replicas read-only transactions currently go to. */
+    public List<String> getUsableReplicas() {
+        return usableReplicas;
+    }
+
+    /**
+     * Runs {@code reads} with the connections this thread takes sent to the primary, those of
+     * read-only transactions included. Without a routing data source it just runs them.
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        if (Boolean.TRUE.equals(primaryOnly.get())) {
+            return reads.get();
+        }
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            primaryOnly.remove();
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (primaryOnly.get() != null || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> usable = usableReplicas;
+        if (usable.isEmpty()) {
+            return PRIMARY;
+        }
+        return usable.get(Math.floorMod(next.getAndIncrement(), usable.size()));
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
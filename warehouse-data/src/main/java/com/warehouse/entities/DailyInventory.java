@@ -0,0 +1,50 @@
+package com.warehouse.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Stock movement of one day and the stock at the end of it. Days without additions or
+ * removals have no row; their stock equals that of the closest earlier row.
+ */
+@Data
+@Entity
+@Table(name = "daily_inventory")
+public class DailyInventory {
+
+    @Id
+    private LocalDate inventoryDay;
+
+    @Column(nullable = false)
+    private long addedCount;
+
+    @Column(nullable = false)
+    private long removedCount;
+
+    @Column(nullable = false)
+    private double addedWeight;
+
+    @Column(nullable = false)
+    private double removedWeight;
+
+    @Column(nullable = false)
+    private long activeCount;
+
+    @Column(nullable = false)
+    private double totalWeight;
+
+    public DailyInventory() {}
+
+    public DailyInventory(LocalDate inventoryDay, long addedCount, long removedCount, double addedWeight,
+                          double removedWeight, long activeCount, double totalWeight) {
+        this.inventoryDay = inventoryDay;
+        this.addedCount = addedCount;
+        this.removedCount = removedCount;
+        this.addedWeight = addedWeight;
+        this.removedWeight = removedWeight;
+        this.activeCount = activeCount;
+        this.totalWeight = totalWeight;
+    }
+}
@@ -0,0 +1,51 @@
+package com.warehouse.entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Entry of the change log: a roll was added or removed, with the roll as it was after the
+ * change. Entries are only appended, in the transaction of the change.
+ */
+@Data
+@Entity
+@Table(name = "roll_change")
+public class RollChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollChangeType type;
+
+    @Column(nullable = false)
+    private int rollId;
+
+    @Column(nullable = false)
+    private double length;
+
+    @Column(nullable = false)
+    private double weight;
+
+    @Column(nullable = false)
+    private LocalDate dateAdded;
+
+    @Column(nullable = true)
+    private LocalDate dateOfDeletion;
+
+    public RollChange() {}
+
+    public RollChange(RollChangeType type, int rollId, double length, double weight, LocalDate dateAdded,
+                      LocalDate dateOfDeletion) {
+        this.type = type;
+        this.rollId = rollId;
+        this.length = length;
+        this.weight = weight;
+        this.dateAdded = dateAdded;
+        this.dateOfDeletion = dateOfDeletion;
+    }
+}
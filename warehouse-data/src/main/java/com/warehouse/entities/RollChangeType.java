@@ -0,0 +1,6 @@
+package com.warehouse.entities;
+
+public enum RollChangeType {
+    ADDED,
+    REMOVED
+}
@@ -0,0 +1,34 @@
+package com.warehouse.hibernate;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code stored_during(dateAdded, dateOfDeletion, start, end)}, true when a roll was
+ * in stock on at least one day of the period. On PostgreSQL it is a range overlap that the
+ * GiST index on the storage interval can serve; elsewhere it is the plain comparison.
+ */
+public class StoragePeriodFunctionContributor implements FunctionContributor {
+
+    private static final String RANGE_PATTERN =
+            "(daterange(?1, ?2, '[]') && daterange(?3, ?4, '[]'))";
+
+    private static final String COMPARISON_PATTERN =
+            "(?1 <= ?4 and (?2 >= ?3 or ?2 is null))";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect
+                ? RANGE_PATTERN
+                : COMPARISON_PATTERN;
+
+        functionContributions.getFunctionRegistry()
+                .patternDescriptorBuilder("stored_during", pattern)
+                .setExactArgumentCount(4)
+                .setInvariantType(functionContributions.getTypeConfiguration()
+                        .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN))
+                .register();
+    }
+}
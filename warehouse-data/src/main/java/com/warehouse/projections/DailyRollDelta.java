@@ -0,0 +1,10 @@
+package com.warehouse.projections;
+
+import java.time.LocalDate;
+
+/**
+ * Change of the number and weight of rolls in stock on a day: additions are positive,
+ * removals negative.
+ */
+public record DailyRollDelta(LocalDate day, Long rolls, Double weight) {
+}
@@ -0,0 +1,4 @@
+package com.warehouse.projections;
+
+public record RemovedRoll(int id, double weight) {
+}
@@ -0,0 +1,7 @@
+package com.warehouse.projections;
+
+import java.time.LocalDate;
+
+/** What the period percentiles need of a roll, read without loading it as an entity. */
+public record RollMeasures(double length, double weight, LocalDate dateAdded, LocalDate dateOfDeletion) {
+}
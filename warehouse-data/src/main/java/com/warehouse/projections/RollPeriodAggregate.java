@@ -0,0 +1,21 @@
+package com.warehouse.projections;
+
+/**
+ * Aggregates over the rolls that were in stock at some point of a period. The averages and
+ * extremes are {@code null} when no roll was in stock, the interval extremes also when none of
+ * those rolls has been removed.
+ */
+public record RollPeriodAggregate(
+        Long addedCount,
+        Long removedCount,
+        Long activeCount,
+        Double avgLength,
+        Double minLength,
+        Double maxLength,
+        Double avgWeight,
+        Double minWeight,
+        Double maxWeight,
+        Double totalWeight,
+        Long minIntervalDays,
+        Long maxIntervalDays) {
+}
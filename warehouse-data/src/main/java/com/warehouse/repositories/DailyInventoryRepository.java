@@ -0,0 +1,40 @@
+package com.warehouse.repositories;
+
+import com.warehouse.entities.DailyInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DailyInventoryRepository extends JpaRepository<DailyInventory, LocalDate> {
+    List<DailyInventory> findByInventoryDayBetweenOrderByInventoryDay(LocalDate start, LocalDate end);
+
+    Optional<DailyInventory> findFirstByInventoryDayLessThanOrderByInventoryDayDesc(LocalDate day);
+
+    // Creates the row of the day from the stock of the closest earlier row, or adds to it.
+    @Modifying
+    @Query(value = "INSERT INTO daily_inventory AS d " +
+            "(inventory_day, added_count, removed_count, added_weight, removed_weight, active_count, total_weight) " +
+            "VALUES (:day, :added, :removed, :addedWeight, :removedWeight, " +
+            "COALESCE((SELECT p.active_count FROM daily_inventory p WHERE p.inventory_day < :day " +
+            "ORDER BY p.inventory_day DESC LIMIT 1), 0) + :added - :removed, " +
+            "COALESCE((SELECT p.total_weight FROM daily_inventory p WHERE p.inventory_day < :day " +
+            "ORDER BY p.inventory_day DESC LIMIT 1), 0) + :addedWeight - :removedWeight) " +
+            "ON CONFLICT (inventory_day) DO UPDATE SET " +
+            "added_count = d.added_count + EXCLUDED.added_count, " +
+            "removed_count = d.removed_count + EXCLUDED.removed_count, " +
+            "added_weight = d.added_weight + EXCLUDED.added_weight, " +
+            "removed_weight = d.removed_weight + EXCLUDED.removed_weight, " +
+            "active_count = d.active_count + EXCLUDED.added_count - EXCLUDED.removed_count, " +
+            "total_weight = d.total_weight + EXCLUDED.added_weight - EXCLUDED.removed_weight",
+            nativeQuery = true)
+    void recordChange(@Param("day") LocalDate day,
+                      @Param("added") long added,
+                      @Param("addedWeight") double addedWeight,
+                      @Param("removed") long removed,
+                      @Param("removedWeight") double removedWeight);
+}
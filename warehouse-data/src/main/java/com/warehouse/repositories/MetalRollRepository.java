@@ -1,21 +1,58 @@
 package com.warehouse.repositories;
 
 import com.warehouse.entities.MetalRoll;
+import com.warehouse.projections.DailyRollDelta;
+import com.warehouse.projections.RollMeasures;
+import com.warehouse.projections.RollPeriodAggregate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface MetalRollRepository extends JpaRepository<MetalRoll, Integer> {
-    List<MetalRoll> findByDateAddedBetween(LocalDate addedFrom, LocalDate addedTo);
+public interface MetalRollRepository extends JpaRepository<MetalRoll, Integer>, JpaSpecificationExecutor<MetalRoll>,
+        MetalRollRepositoryCustom {
 
-    List<MetalRoll> findByDateOfDeletionBetween(LocalDate removedFrom, LocalDate removedTo);
+    @Query("SELECT r.id FROM MetalRoll r WHERE r.id IN :ids")
+    List<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
 
-    @Query("SELECT r FROM MetalRoll r WHERE " +
-            "r.dateAdded <= :end AND " +
-            "(r.dateOfDeletion >= :start OR r.dateOfDeletion IS NULL)")
+    @Query("SELECT r FROM MetalRoll r WHERE stored_during(r.dateAdded, r.dateOfDeletion, :start, :end)")
     List<MetalRoll> findActiveInPeriod(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // The same rolls as a projection fetched in chunks, so a period of years passes through
+    // without entering the persistence context. Must be read inside a transaction and closed.
+    @Query("SELECT new com.warehouse.projections.RollMeasures(r.length, r.weight, r.dateAdded, r.dateOfDeletion) " +
+            "FROM MetalRoll r WHERE stored_during(r.dateAdded, r.dateOfDeletion, :start, :end)")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<RollMeasures> streamMeasuresInPeriod(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    // Rolls added or removed within the period are always in stock during it, so filtering by
+    // the active condition once is enough for all three groups.
+    @Query("SELECT new com.warehouse.projections.RollPeriodAggregate(" +
+            "COUNT(r) FILTER (WHERE r.dateAdded BETWEEN :start AND :end), " +
+            "COUNT(r) FILTER (WHERE r.dateOfDeletion BETWEEN :start AND :end), " +
+            "COUNT(r), " +
+            "AVG(r.length), MIN(r.length), MAX(r.length), " +
+            "AVG(r.weight), MIN(r.weight), MAX(r.weight), SUM(r.weight), " +
+            "MIN((r.dateOfDeletion - r.dateAdded) BY DAY), " +
+            "MAX((r.dateOfDeletion - r.dateAdded) BY DAY)) " +
+            "FROM MetalRoll r WHERE stored_during(r.dateAdded, r.dateOfDeletion, :start, :end)")
+    RollPeriodAggregate aggregateInPeriod(@Param("start") LocalDate start, @Param("end") LocalDate end);
+
+    @Query("SELECT new com.warehouse.projections.DailyRollDelta(r.dateAdded, COUNT(r), SUM(r.weight)) " +
+            "FROM MetalRoll r " +
+            "GROUP BY r.dateAdded " +
+            "UNION ALL " +
+            "SELECT new com.warehouse.projections.DailyRollDelta(r.dateOfDeletion, -COUNT(r), -SUM(r.weight)) " +
+            "FROM MetalRoll r WHERE r.dateOfDeletion IS NOT NULL " +
+            "GROUP BY r.dateOfDeletion")
+    List<DailyRollDelta> findDailyDeltas();
 }
@@ -0,0 +1,54 @@
+package com.warehouse.repositories;
+
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.projections.RemovedRoll;
+import com.warehouse.specifications.MetalRollSpecification;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface MetalRollRepositoryCustom {
+
+    /**
+     * Streams matching rolls in id order through a server-side cursor. Each roll is detached
+     * from the persistence context once read, so the stream must be consumed inside a
+     * transaction but does not accumulate entities.
+     */
+    Stream<MetalRoll> streamAll(Specification<MetalRoll> spec, int fetchSize);
+
+    /**
+     * Inserts new rolls with one JDBC batch, bypassing the persistence context, and sets the
+     * generated ids on them.
+     */
+    List<MetalRoll> insertAll(List<MetalRoll> rolls);
+
+    /**
+     * Inserts rolls that already have ids, e.g. restored from a dump, with one JDBC batch.
+     * {@link #restartIdSequence()} must follow before new rolls are added.
+     */
+    void insertWithIds(List<MetalRoll> rolls);
+
+    /** Moves the id sequence past the largest id in the table. */
+    void restartIdSequence();
+
+    /**
+     * Passes every roll to the handler in id order as plain column values, without creating
+     * entities. Must run inside a transaction for the fetch size to take effect.
+     */
+    void forEachRow(int fetchSize, RollRowHandler handler);
+
+    /**
+     * Sets the removal date of those of the given rolls that are still in stock with a single
+     * UPDATE and returns them. Missing and already removed rolls are left out.
+     */
+    List<RemovedRoll> removeActive(Collection<Integer> ids, LocalDate day);
+
+    /**
+     * Sets the removal date of at most {@code limit} rolls in stock that match the specification
+     * with a single UPDATE and returns them, without reading their ids first.
+     */
+    List<RemovedRoll> removeMatching(MetalRollSpecification spec, LocalDate day, int limit);
+}
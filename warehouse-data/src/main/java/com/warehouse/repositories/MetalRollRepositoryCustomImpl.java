@@ -0,0 +1,188 @@
+package com.warehouse.repositories;
+
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.projections.RemovedRoll;
+import com.warehouse.specifications.MetalRollSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class MetalRollRepositoryCustomImpl implements MetalRollRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO metalroll (length, weight, date_added, date_of_deletion) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_WITH_ID_SQL =
+            "INSERT INTO metalroll (id, length, weight, date_added, date_of_deletion) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String RESTART_ID_SEQUENCE_SQL =
+            "SELECT setval(pg_get_serial_sequence('metalroll', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM metalroll";
+
+    private static final String SELECT_ROWS_SQL =
+            "SELECT id, length, weight, date_added, date_of_deletion FROM metalroll ORDER BY id";
+
+    private static final String REMOVE_ACTIVE_SQL =
+            "UPDATE metalroll SET date_of_deletion = ? WHERE id = ANY (?) AND date_of_deletion IS NULL " +
+            "RETURNING id, weight";
+
+    private static final String REMOVE_MATCHING_SQL =
+            "UPDATE metalroll SET date_of_deletion = ? WHERE date_of_deletion IS NULL AND id IN (" +
+            "SELECT id FROM metalroll WHERE date_of_deletion IS NULL AND %s LIMIT ? FOR UPDATE) " +
+            "RETURNING id, weight";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MetalRollRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Stream<MetalRoll> streamAll(Specification<MetalRoll> spec, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MetalRoll> query = cb.createQuery(MetalRoll.class);
+        Root<MetalRoll> root = query.from(MetalRoll.class);
+        query.where(spec.toPredicate(root, query, cb)).orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+
+    @Override
+    public List<MetalRoll> insertAll(List<MetalRoll> rolls) {
+        if (rolls.isEmpty()) {
+            return rolls;
+        }
+
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        MetalRoll roll = rolls.get(i);
+                        ps.setDouble(1, roll.getLength());
+                        ps.setDouble(2, roll.getWeight());
+                        ps.setDate(3, Date.valueOf(roll.getDateAdded()));
+                        if (roll.getDateOfDeletion() == null) {
+                            ps.setNull(4, Types.DATE);
+                        } else {
+                            ps.setDate(4, Date.valueOf(roll.getDateOfDeletion()));
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rolls.size();
+                    }
+                }, keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < rolls.size(); i++) {
+            rolls.get(i).setId(((Number) generated.get(i).get("id")).intValue());
+        }
+        return rolls;
+    }
+
+    @Override
+    public void insertWithIds(List<MetalRoll> rolls) {
+        if (rolls.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_WITH_ID_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                MetalRoll roll = rolls.get(i);
+                ps.setInt(1, roll.getId());
+                ps.setDouble(2, roll.getLength());
+                ps.setDouble(3, roll.getWeight());
+                ps.setDate(4, Date.valueOf(roll.getDateAdded()));
+                if (roll.getDateOfDeletion() == null) {
+                    ps.setNull(5, Types.DATE);
+                } else {
+                    ps.setDate(5, Date.valueOf(roll.getDateOfDeletion()));
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rolls.size();
+            }
+        });
+    }
+
+    @Override
+    public void restartIdSequence() {
+        jdbcTemplate.queryForObject(RESTART_ID_SEQUENCE_SQL, Long.class);
+    }
+
+    @Override
+    public void forEachRow(int fetchSize, RollRowHandler handler) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ROWS_SQL);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> handler.accept(rs.getInt(1), rs.getDouble(2), rs.getDouble(3),
+                rs.getObject(4, LocalDate.class), rs.getObject(5, LocalDate.class)));
+    }
+
+    @Override
+    public List<RemovedRoll> removeActive(Collection<Integer> ids, LocalDate day) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(REMOVE_ACTIVE_SQL);
+            ps.setDate(1, Date.valueOf(day));
+            ps.setArray(2, con.createArrayOf("integer", ids.toArray()));
+            return ps;
+        }, (rs, rowNum) -> new RemovedRoll(rs.getInt("id"), rs.getDouble("weight")));
+    }
+
+    @Override
+    public List<RemovedRoll> removeMatching(MetalRollSpecification spec, LocalDate day, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = REMOVE_MATCHING_SQL.formatted(spec.toSql(params));
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setDate(1, Date.valueOf(day));
+            for (int i = 0; i < params.size(); i++) {
+                Object value = params.get(i);
+                if (value instanceof LocalDate date) {
+                    ps.setDate(i + 2, Date.valueOf(date));
+                } else {
+                    ps.setObject(i + 2, value);
+                }
+            }
+            ps.setInt(params.size() + 2, limit);
+            return ps;
+        }, (rs, rowNum) -> new RemovedRoll(rs.getInt("id"), rs.getDouble("weight")));
+    }
+}
@@ -0,0 +1,15 @@
+package com.warehouse.repositories;
+
+import com.warehouse.entities.RollChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface RollChangeRepository extends JpaRepository<RollChange, Long>, RollChangeRepositoryCustom {
+    List<RollChange> findBySeqGreaterThanOrderBySeq(long seq, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM RollChange c")
+    long findLastSeq();
+}
@@ -0,0 +1,17 @@
+package com.warehouse.repositories;
+
+import com.warehouse.entities.RollChangeType;
+
+import java.util.Collection;
+
+public interface RollChangeRepositoryCustom {
+
+    /**
+     * Appends a change of the given type for each of the rolls, copying the rolls as they are in
+     * the current transaction, in id order. Holds a lock until the transaction ends so that
+     * writers append one at a time: a sequence number is then never committed after a higher
+     * one, and a reader resuming after the last number it saw cannot skip an entry. Must run
+     * inside a transaction, after the changes to the rolls.
+     */
+    void appendSnapshots(RollChangeType type, Collection<Integer> rollIds);
+}
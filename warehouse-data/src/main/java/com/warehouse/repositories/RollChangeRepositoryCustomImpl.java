@@ -0,0 +1,56 @@
+package com.warehouse.repositories;
+
+import com.warehouse.entities.RollChangeType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+
+public class RollChangeRepositoryCustomImpl implements RollChangeRepositoryCustom {
+
+    /*
+     * Arbitrary key of the transaction-level advisory lock that orders the appends. Without it a
+     * transaction could commit a lower seq after a reader has passed a higher one, and the reader
+     * would never see the change. The lock is held from the append to the commit, so every adding
+     * or removing transaction queues here for that stretch, commit flush included. The services
+     * append last, after the daily inventory upsert, whose row lock already queues the writes of
+     * one day for the same stretch; what the lock adds is queueing across days, e.g. a backdated
+     * import. Batching through the ingest queue takes the lock once per batch.
+     */
+    private static final long APPEND_LOCK_KEY = 0x726f6c6c;
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(" + APPEND_LOCK_KEY + ")";
+
+    private static final String APPEND_SQL =
+            "INSERT INTO roll_change (type, roll_id, length, weight, date_added, date_of_deletion) " +
+            "SELECT ?, id, length, weight, date_added, date_of_deletion FROM metalroll WHERE id = ANY (?) " +
+            "ORDER BY id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RollChangeRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void appendSnapshots(RollChangeType type, Collection<Integer> rollIds) {
+        if (rollIds.isEmpty()) {
+            return;
+        }
+
+        // changes to the rolls still held by the persistence context must be in the copies
+        entityManager.flush();
+        jdbcTemplate.execute(LOCK_SQL);
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(APPEND_SQL);
+            ps.setString(1, type.name());
+            ps.setArray(2, con.createArrayOf("integer", rollIds.toArray()));
+            return ps;
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.warehouse.repositories;
+
+import java.time.LocalDate;
+
+@FunctionalInterface
+public interface RollRowHandler {
+
+    void accept(int id, double length, double weight, LocalDate dateAdded, LocalDate dateOfDeletion);
+}
@@ -0,0 +1,186 @@
+package com.warehouse.specifications;
+
+import com.warehouse.entities.MetalRoll;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.Getter;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inclusive range filter over metal rolls. Translates into a single WHERE clause
+ * for the database and can also be evaluated against already loaded rolls.
+ */
+@Getter
+public class MetalRollSpecification implements Specification<MetalRoll> {
+    private Integer idFrom;
+
+    private Integer idTo;
+
+    private Double lengthFrom;
+
+    private Double lengthTo;
+
+    private Double weightFrom;
+
+    private Double weightTo;
+
+    private LocalDate addedFrom;
+
+    private LocalDate addedTo;
+
+    private LocalDate removedFrom;
+
+    private LocalDate removedTo;
+
+    private Integer afterId;
+
+    private boolean activeOnly;
+
+    public MetalRollSpecification idBetween(int from, int to) {
+        idFrom = from;
+        idTo = to;
+        return this;
+    }
+
+    public MetalRollSpecification lengthBetween(double from, double to) {
+        lengthFrom = from;
+        lengthTo = to;
+        return this;
+    }
+
+    public MetalRollSpecification weightBetween(double from, double to) {
+        weightFrom = from;
+        weightTo = to;
+        return this;
+    }
+
+    public MetalRollSpecification addedBetween(LocalDate from, LocalDate to) {
+        addedFrom = from;
+        addedTo = to;
+        return this;
+    }
+
+    public MetalRollSpecification removedBetween(LocalDate from, LocalDate to) {
+        removedFrom = from;
+        removedTo = to;
+        return this;
+    }
+
+    public MetalRollSpecification idGreaterThan(int id) {
+        afterId = id;
+        return this;
+    }
+
+    public MetalRollSpecification inStock() {
+        activeOnly = true;
+        return this;
+    }
+
+    public boolean isRestricted() {
+        return idFrom != null || lengthFrom != null || weightFrom != null || addedFrom != null || removedFrom != null;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<MetalRoll> root, CriteriaQuery<?> query, CriteriaBuilder cb) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (idFrom != null) {
+            predicates.add(cb.between(root.get("id"), idFrom, idTo));
+        }
+        if (lengthFrom != null) {
+            predicates.add(cb.between(root.get("length"), lengthFrom, lengthTo));
+        }
+        if (weightFrom != null) {
+            predicates.add(cb.between(root.get("weight"), weightFrom, weightTo));
+        }
+        if (addedFrom != null) {
+            predicates.add(cb.between(root.get("dateAdded"), addedFrom, addedTo));
+        }
+        if (removedFrom != null) {
+            predicates.add(cb.between(root.get("dateOfDeletion"), removedFrom, removedTo));
+        }
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(root.get("id"), afterId));
+        }
+        if (activeOnly) {
+            predicates.add(cb.isNull(root.get("dateOfDeletion")));
+        }
+
+        return cb.and(predicates.toArray(new Predicate[0]));
+    }
+
+    /**
+     * The same conditions as an SQL condition over the metalroll table, for statements the
+     * criteria API cannot express. Values are added to {@code params} in placeholder order.
+     */
+    public String toSql(List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+
+        if (idFrom != null) {
+            conditions.add("id BETWEEN ? AND ?");
+            params.add(idFrom);
+            params.add(idTo);
+        }
+        if (lengthFrom != null) {
+            conditions.add("length BETWEEN ? AND ?");
+            params.add(lengthFrom);
+            params.add(lengthTo);
+        }
+        if (weightFrom != null) {
+            conditions.add("weight BETWEEN ? AND ?");
+            params.add(weightFrom);
+            params.add(weightTo);
+        }
+        if (addedFrom != null) {
+            conditions.add("date_added BETWEEN ? AND ?");
+            params.add(addedFrom);
+            params.add(addedTo);
+        }
+        if (removedFrom != null) {
+            conditions.add("date_of_deletion BETWEEN ? AND ?");
+            params.add(removedFrom);
+            params.add(removedTo);
+        }
+        if (afterId != null) {
+            conditions.add("id > ?");
+            params.add(afterId);
+        }
+        if (activeOnly) {
+            conditions.add("date_of_deletion IS NULL");
+        }
+
+        return conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions);
+    }
+
+    public boolean matches(MetalRoll roll) {
+        if (idFrom != null && (roll.getId() < idFrom || roll.getId() > idTo)) {
+            return false;
+        }
+        if (lengthFrom != null && (roll.getLength() < lengthFrom || roll.getLength() > lengthTo)) {
+            return false;
+        }
+        if (weightFrom != null && (roll.getWeight() < weightFrom || roll.getWeight() > weightTo)) {
+            return false;
+        }
+        if (addedFrom != null && (roll.getDateAdded().isBefore(addedFrom) || roll.getDateAdded().isAfter(addedTo))) {
+            return false;
+        }
+        if (removedFrom != null && (roll.getDateOfDeletion() == null ||
+                roll.getDateOfDeletion().isBefore(removedFrom) || roll.getDateOfDeletion().isAfter(removedTo))) {
+            return false;
+        }
+        if (afterId != null && roll.getId() <= afterId) {
+            return false;
+        }
+        if (activeOnly && roll.getDateOfDeletion() != null) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+-- Schema previously created by Hibernate; IF NOT EXISTS lets existing databases adopt it.
+CREATE TABLE IF NOT EXISTS metalroll (
+    id               integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    length           double precision NOT NULL,
+    weight           double precision NOT NULL,
+    date_added       date             NOT NULL,
+    date_of_deletion date
+);
+
+CREATE TABLE IF NOT EXISTS daily_inventory (
+    inventory_day  date             PRIMARY KEY,
+    added_count    bigint           NOT NULL,
+    removed_count  bigint           NOT NULL,
+    added_weight   double precision NOT NULL,
+    removed_weight double precision NOT NULL,
+    active_count   bigint           NOT NULL,
+    total_weight   double precision NOT NULL
+);
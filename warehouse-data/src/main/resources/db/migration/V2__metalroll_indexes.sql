@@ -0,0 +1,12 @@
+-- Filters by addition date.
+CREATE INDEX IF NOT EXISTS metalroll_date_added_idx ON metalroll (date_added);
+
+-- Filters by removal date.
+CREATE INDEX IF NOT EXISTS metalroll_date_of_deletion_idx ON metalroll (date_of_deletion);
+
+-- Rolls currently in stock, a small part of the table once history accumulates.
+CREATE INDEX IF NOT EXISTS metalroll_in_stock_idx ON metalroll (date_added) WHERE date_of_deletion IS NULL;
+
+-- Storage interval for "in stock at some point of the period"; a missing removal date is an
+-- unbounded upper end. Matches the expression rendered by stored_during().
+CREATE INDEX IF NOT EXISTS metalroll_storage_idx ON metalroll USING gist (daterange(date_added, date_of_deletion, '[]'));
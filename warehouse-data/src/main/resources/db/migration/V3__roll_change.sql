@@ -0,0 +1,11 @@
+-- Append-only log of roll additions and removals, each with the roll as it was after the
+-- change. Readers resume after the last seq they saw.
+CREATE TABLE IF NOT EXISTS roll_change (
+    seq              bigint           GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type             varchar(16)      NOT NULL,
+    roll_id          integer          NOT NULL,
+    length           double precision NOT NULL,
+    weight           double precision NOT NULL,
+    date_added       date             NOT NULL,
+    date_of_deletion date
+);
@@ -0,0 +1,140 @@
+import com.warehouse.entities.DailyInventory;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.repositories.DailyInventoryRepository;
+import com.warehouse.repositories.MetalRollRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the daily inventory upsert against PostgreSQL: seeding a new day from the closest
+ * earlier row, adding to an existing row, and concurrent first writers of a day. Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.datasource.hikari.maximum-pool-size=8"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DailyInventoryRepositoryTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    private static final int WRITERS = 8;
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private DailyInventoryRepository repository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    void shouldSeedTheFirstRowOfADayFromTheClosestEarlierRow() {
+        record(DAY, 3, 30.0, 0, 0.0);
+        // days without changes have no row, so the next day seeds from two days back
+        record(DAY.plusDays(2), 1, 5.0, 2, 12.0);
+
+        DailyInventory first = repository.findById(DAY).orElseThrow();
+        assertThat(first.getActiveCount()).isEqualTo(3);
+        assertThat(first.getTotalWeight()).isEqualTo(30.0);
+
+        DailyInventory later = repository.findById(DAY.plusDays(2)).orElseThrow();
+        assertThat(later.getAddedCount()).isEqualTo(1);
+        assertThat(later.getRemovedCount()).isEqualTo(2);
+        assertThat(later.getAddedWeight()).isEqualTo(5.0);
+        assertThat(later.getRemovedWeight()).isEqualTo(12.0);
+        assertThat(later.getActiveCount()).isEqualTo(2);
+        assertThat(later.getTotalWeight()).isEqualTo(23.0);
+        assertThat(repository.findById(DAY.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void shouldAddRepeatedChangesToTheRowOfTheDay() {
+        record(DAY.minusDays(1), 10, 100.0, 0, 0.0);
+        record(DAY, 2, 20.0, 0, 0.0);
+        record(DAY, 0, 0.0, 3, 25.0);
+        record(DAY, 1, 4.0, 0, 0.0);
+
+        DailyInventory row = repository.findById(DAY).orElseThrow();
+        assertThat(row.getAddedCount()).isEqualTo(3);
+        assertThat(row.getRemovedCount()).isEqualTo(3);
+        assertThat(row.getAddedWeight()).isEqualTo(24.0);
+        assertThat(row.getRemovedWeight()).isEqualTo(25.0);
+        assertThat(row.getActiveCount()).isEqualTo(10);
+        assertThat(row.getTotalWeight()).isEqualTo(99.0);
+    }
+
+    @Test
+    void shouldKeepEveryChangeOfConcurrentFirstWritersOfADay() throws Exception {
+        record(DAY.minusDays(1), 100, 1000.0, 0, 0.0);
+
+        // all writers insert the missing row at once; the losers of the conflict add to the winner's row
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers.add(pool.submit(() -> {
+                start.await();
+                record(DAY, 2, 10.0, 1, 3.0);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        pool.shutdown();
+
+        DailyInventory row = repository.findById(DAY).orElseThrow();
+        assertThat(row.getAddedCount()).isEqualTo(2L * WRITERS);
+        assertThat(row.getRemovedCount()).isEqualTo(WRITERS);
+        assertThat(row.getActiveCount()).isEqualTo(100 + WRITERS);
+        assertThat(row.getTotalWeight()).isEqualTo(1000.0 + 7.0 * WRITERS);
+    }
+
+    private void record(LocalDate day, long added, double addedWeight, long removed, double removedWeight) {
+        transactionTemplate.executeWithoutResult(status ->
+                repository.recordChange(day, added, addedWeight, removed, removedWeight));
+    }
+}
@@ -0,0 +1,109 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.projections.DailyRollDelta;
+import com.warehouse.projections.RollMeasures;
+import com.warehouse.projections.RollPeriodAggregate;
+import com.warehouse.repositories.MetalRollRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+public class MetalRollAggregateTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    private static final LocalDate START = BASE.plusDays(100);
+
+    private static final LocalDate END = BASE.plusDays(160);
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            LocalDate added = BASE.plusDays(random.nextInt(300));
+            LocalDate removed = random.nextBoolean() ? added.plusDays(random.nextInt(90)) : null;
+            repository.save(new MetalRoll(1 + random.nextInt(400) / 4.0, 1 + random.nextInt(200) / 8.0, added, removed));
+        }
+    }
+
+    @Test
+    void shouldAggregateLikeTheEntityQueries() {
+        List<MetalRoll> active = repository.findActiveInPeriod(START, END);
+
+        RollPeriodAggregate aggregate = repository.aggregateInPeriod(START, END);
+
+        assertThat(aggregate.addedCount()).isEqualTo(active.stream()
+                .filter(r -> !r.getDateAdded().isBefore(START) && !r.getDateAdded().isAfter(END)).count());
+        assertThat(aggregate.removedCount()).isEqualTo(active.stream()
+                .filter(r -> r.getDateOfDeletion() != null)
+                .filter(r -> !r.getDateOfDeletion().isBefore(START) && !r.getDateOfDeletion().isAfter(END)).count());
+        assertThat(aggregate.activeCount()).isEqualTo(active.size());
+        assertThat(aggregate.avgLength()).isCloseTo(active.stream().mapToDouble(MetalRoll::getLength).average().orElseThrow(), within(1e-9));
+        assertThat(aggregate.minWeight()).isEqualTo(active.stream().mapToDouble(MetalRoll::getWeight).min().orElseThrow());
+        assertThat(aggregate.totalWeight()).isCloseTo(active.stream().mapToDouble(MetalRoll::getWeight).sum(), within(1e-9));
+        assertThat(aggregate.maxIntervalDays()).isEqualTo(active.stream()
+                .filter(r -> r.getDateOfDeletion() != null)
+                .mapToLong(r -> r.getDateOfDeletion().toEpochDay() - r.getDateAdded().toEpochDay())
+                .max().orElseThrow());
+    }
+
+    @Test
+    void shouldReturnEmptyAggregateForPeriodWithoutRolls() {
+        RollPeriodAggregate aggregate = repository.aggregateInPeriod(BASE.minusDays(30), BASE.minusDays(1));
+
+        assertThat(aggregate.activeCount()).isZero();
+        assertThat(aggregate.avgLength()).isNull();
+    }
+
+    @Test
+    void shouldStreamMeasuresOfTheRollsInStock() {
+        List<RollMeasures> expected = repository.findActiveInPeriod(START, END).stream()
+                .map(r -> new RollMeasures(r.getLength(), r.getWeight(), r.getDateAdded(), r.getDateOfDeletion()))
+                .toList();
+
+        try (Stream<RollMeasures> measures = repository.streamMeasuresInPeriod(START, END)) {
+            assertThat(measures.toList()).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void shouldSumDailyDeltasToRollsInStock() {
+        List<DailyRollDelta> deltas = repository.findDailyDeltas();
+
+        for (LocalDate day = START; !day.isAfter(END); day = day.plusDays(1)) {
+            LocalDate current = day;
+            long expected = repository.findActiveInPeriod(current, current).stream()
+                    .filter(r -> r.getDateOfDeletion() == null || r.getDateOfDeletion().isAfter(current))
+                    .count();
+            long actual = deltas.stream()
+                    .filter(d -> !d.day().isAfter(current))
+                    .mapToLong(DailyRollDelta::rolls)
+                    .sum();
+
+            assertThat(actual).as("rolls in stock on %s", current).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.repositories.MetalRollRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class MetalRollBatchInsertTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldInsertBatchAndAssignGeneratedIds() {
+        LocalDate today = LocalDate.of(2026, 3, 10);
+        List<MetalRoll> rolls = new ArrayList<>();
+        for (int i = 1; i <= 250; i++) {
+            rolls.add(new MetalRoll(i, i / 2.0, today, null));
+        }
+
+        List<MetalRoll> saved = repository.insertAll(rolls);
+        entityManager.clear();
+
+        assertThat(saved).hasSize(250);
+        assertThat(saved).extracting(MetalRoll::getId).doesNotHaveDuplicates().doesNotContain(0);
+        MetalRoll last = repository.findById(saved.get(249).getId()).orElseThrow();
+        assertThat(last.getLength()).isEqualTo(250.0);
+        assertThat(last.getWeight()).isEqualTo(125.0);
+        assertThat(last.getDateAdded()).isEqualTo(today);
+        assertThat(last.getDateOfDeletion()).isNull();
+        assertThat(repository.count()).isEqualTo(250);
+    }
+
+    @Test
+    void shouldReadRowsBackAsColumnValuesInIdOrder() {
+        LocalDate day = LocalDate.of(2026, 3, 10);
+        List<MetalRoll> saved = repository.insertAll(new ArrayList<>(List.of(
+                new MetalRoll(5.0, 1.5, day, day.plusDays(3)),
+                new MetalRoll(7.0, 2.5, day.plusDays(1), null))));
+
+        List<MetalRoll> read = new ArrayList<>();
+        repository.forEachRow(100, (id, length, weight, added, removed) -> {
+            MetalRoll roll = new MetalRoll(length, weight, added, removed);
+            roll.setId(id);
+            read.add(roll);
+        });
+
+        assertThat(read).containsExactlyElementsOf(saved);
+    }
+
+    @Test
+    void shouldInsertRestoredRollsWithTheirIds() {
+        LocalDate day = LocalDate.of(2026, 3, 10);
+        MetalRoll removed = new MetalRoll(5.0, 1.5, day, day.plusDays(3));
+        removed.setId(40);
+        MetalRoll inStock = new MetalRoll(7.0, 2.5, day.plusDays(1), null);
+        inStock.setId(17);
+
+        repository.insertWithIds(List.of(removed, inStock));
+        entityManager.clear();
+
+        assertThat(repository.findById(40).orElseThrow()).isEqualTo(removed);
+        assertThat(repository.findById(17).orElseThrow()).isEqualTo(inStock);
+        assertThat(repository.count()).isEqualTo(2);
+    }
+}
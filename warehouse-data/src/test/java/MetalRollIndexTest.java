@@ -0,0 +1,145 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.specifications.MetalRollSpecification;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the migrated schema against the entities and that PostgreSQL plans the repository
+ * queries with the indexes from the migrations. Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=MetalRollIndexTest$SqlRecorder"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+public class MetalRollIndexTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    public static class SqlRecorder implements StatementInspector {
+
+        static volatile String last;
+
+        @Override
+        public String inspect(String sql) {
+            last = sql;
+            return sql;
+        }
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    private static final LocalDate BASE = LocalDate.of(2016, 1, 1);
+
+    private static final LocalDate LAST_DAY = BASE.plusDays(3650);
+
+    private static final LocalDate START = BASE.plusDays(1800);
+
+    private static final LocalDate END = BASE.plusDays(1830);
+
+    private static final int ROLLS = 50_000;
+
+    private static final List<MetalRoll> rolls = new ArrayList<>();
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (!rolls.isEmpty()) {
+            return;
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < ROLLS; i++) {
+            LocalDate added = BASE.plusDays(random.nextInt(3650));
+            LocalDate removed = added.plusDays(10 + random.nextInt(50));
+            rolls.add(new MetalRoll(1 + random.nextInt(400) / 4.0, 1 + random.nextInt(200) / 8.0,
+                    added, removed.isAfter(LAST_DAY) ? null : removed));
+        }
+        for (int from = 0; from < ROLLS; from += 5000) {
+            repository.insertAll(rolls.subList(from, from + 5000));
+        }
+        jdbcTemplate.execute("ANALYZE metalroll");
+    }
+
+    @Test
+    void shouldFindActiveRollsThroughStorageIndex() {
+        List<MetalRoll> active = repository.findActiveInPeriod(START, END);
+
+        assertThat(active).hasSize((int) rolls.stream()
+                .filter(r -> !r.getDateAdded().isAfter(END))
+                .filter(r -> r.getDateOfDeletion() == null || !r.getDateOfDeletion().isBefore(START))
+                .count());
+        assertThat(explainLast(START, END)).contains("metalroll_storage_idx");
+    }
+
+    @Test
+    void shouldAggregatePeriodThroughStorageIndex() {
+        repository.aggregateInPeriod(START, END);
+
+        assertThat(explainLast(START, END, START, END, START, END)).contains("metalroll_storage_idx");
+    }
+
+    @Test
+    void shouldFilterByDatesThroughDateIndexes() {
+        repository.findAll(new MetalRollSpecification().addedBetween(START, END));
+        assertThat(explainLast(START, END)).contains("metalroll_date_added_idx");
+
+        repository.findAll(new MetalRollSpecification().removedBetween(START, END));
+        assertThat(explainLast(START, END)).contains("metalroll_date_of_deletion_idx");
+    }
+
+    @Test
+    void shouldNotScanWholeTableForRollsInStock() {
+        // the condition of the bulk removal UPDATE
+        List<Object> params = new ArrayList<>();
+        String where = new MetalRollSpecification().inStock().toSql(params);
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN SELECT id, weight FROM metalroll WHERE " + where, String.class, params.toArray()));
+
+        assertThat(plan).doesNotContain("Seq Scan on metalroll");
+    }
+
+    private String explainLast(LocalDate... parameters) {
+        Object[] args = Arrays.stream(parameters).map(Date::valueOf).toArray();
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + SqlRecorder.last, String.class, args));
+    }
+}
@@ -0,0 +1,115 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.projections.RemovedRoll;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.specifications.MetalRollSpecification;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the set-based removal statements of the custom repository against PostgreSQL. Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class MetalRollRemovalTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void shouldRemoveOnlyTheGivenRollsStillInStock() {
+        List<MetalRoll> rolls = repository.insertAll(new ArrayList<>(List.of(
+                new MetalRoll(5.0, 1.5, DAY, null),
+                new MetalRoll(6.0, 2.5, DAY, DAY.plusDays(1)),
+                new MetalRoll(7.0, 3.5, DAY, null))));
+        int active = rolls.get(0).getId();
+        int removedBefore = rolls.get(1).getId();
+        int untouched = rolls.get(2).getId();
+        int missing = untouched + 100;
+
+        List<RemovedRoll> removed = repository.removeActive(List.of(active, removedBefore, missing), DAY.plusDays(5));
+
+        assertThat(removed).containsExactly(new RemovedRoll(active, 1.5));
+        entityManager.clear();
+        assertThat(repository.findById(active).orElseThrow().getDateOfDeletion()).isEqualTo(DAY.plusDays(5));
+        assertThat(repository.findById(removedBefore).orElseThrow().getDateOfDeletion()).isEqualTo(DAY.plusDays(1));
+        assertThat(repository.findById(untouched).orElseThrow().getDateOfDeletion()).isNull();
+
+        // a second removal of the same roll matches nothing
+        assertThat(repository.removeActive(List.of(active), DAY.plusDays(6))).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveRollsMatchingSpecificationWithOneUpdate() {
+        List<MetalRoll> rolls = repository.insertAll(new ArrayList<>(List.of(
+                new MetalRoll(5.0, 1.5, DAY, null),
+                new MetalRoll(6.0, 2.5, DAY.plusDays(1), null),
+                new MetalRoll(7.0, 3.5, DAY, DAY.plusDays(2)),
+                new MetalRoll(8.0, 9.5, DAY, null),
+                new MetalRoll(9.0, 1.0, DAY.plusDays(10), null))));
+        MetalRollSpecification spec = new MetalRollSpecification()
+                .addedBetween(DAY, DAY.plusDays(3))
+                .weightBetween(1.0, 5.0);
+
+        List<RemovedRoll> removed = repository.removeMatching(spec, DAY.plusDays(4), 10);
+
+        assertThat(removed).containsExactlyInAnyOrder(
+                new RemovedRoll(rolls.get(0).getId(), 1.5),
+                new RemovedRoll(rolls.get(1).getId(), 2.5));
+        entityManager.clear();
+        assertThat(repository.findAll()).filteredOn(r -> DAY.plusDays(4).equals(r.getDateOfDeletion()))
+                .extracting(MetalRoll::getId)
+                .containsExactlyInAnyOrder(rolls.get(0).getId(), rolls.get(1).getId());
+        assertThat(repository.findById(rolls.get(2).getId()).orElseThrow().getDateOfDeletion())
+                .isEqualTo(DAY.plusDays(2));
+        assertThat(repository.removeMatching(spec, DAY.plusDays(5), 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRemoveNoMoreMatchingRollsThanLimit() {
+        repository.insertAll(new ArrayList<>(List.of(
+                new MetalRoll(5.0, 1.5, DAY, null),
+                new MetalRoll(6.0, 2.5, DAY, null),
+                new MetalRoll(7.0, 3.5, DAY, null))));
+        MetalRollSpecification spec = new MetalRollSpecification().weightBetween(1.0, 5.0);
+
+        assertThat(repository.removeMatching(spec, DAY.plusDays(1), 2)).hasSize(2);
+        assertThat(repository.removeMatching(spec, DAY.plusDays(1), 2)).hasSize(1);
+    }
+}
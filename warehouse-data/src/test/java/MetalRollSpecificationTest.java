@@ -0,0 +1,102 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.specifications.MetalRollSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class MetalRollSpecificationTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    private static final LocalDate BASE = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<MetalRoll> rolls;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            LocalDate added = BASE.plusDays(random.nextInt(365));
+            LocalDate removed = random.nextBoolean() ? added.plusDays(random.nextInt(120)) : null;
+            repository.save(new MetalRoll(1 + random.nextInt(400) / 4.0, 1 + random.nextInt(200) / 8.0, added, removed));
+        }
+        rolls = repository.findAll();
+    }
+
+    @Test
+    void shouldMatchInMemoryFilteringForEachRange() {
+        int minId = rolls.stream().mapToInt(MetalRoll::getId).min().orElseThrow();
+
+        assertSameResult(new MetalRollSpecification());
+        assertSameResult(new MetalRollSpecification().idBetween(minId + 50, minId + 149));
+        assertSameResult(new MetalRollSpecification().lengthBetween(20.0, 60.25));
+        assertSameResult(new MetalRollSpecification().weightBetween(5.0, 12.5));
+        assertSameResult(new MetalRollSpecification().addedBetween(BASE.plusDays(30), BASE.plusDays(90)));
+        assertSameResult(new MetalRollSpecification().removedBetween(BASE.plusDays(60), BASE.plusDays(200)));
+    }
+
+    @Test
+    void shouldMatchInMemoryFilteringForCombinedRanges() {
+        assertSameResult(new MetalRollSpecification()
+                .lengthBetween(10.0, 80.0)
+                .weightBetween(2.0, 20.0)
+                .addedBetween(BASE.plusDays(10), BASE.plusDays(300))
+                .removedBetween(BASE.plusDays(20), BASE.plusDays(320)));
+        assertSameResult(new MetalRollSpecification().lengthBetween(50.0, 10.0));
+        assertSameResult(new MetalRollSpecification().inStock().addedBetween(BASE.plusDays(10), BASE.plusDays(200)));
+    }
+
+    @Test
+    void shouldStreamMatchingRollsInIdOrder() {
+        MetalRollSpecification spec = new MetalRollSpecification().weightBetween(5.0, 12.5);
+        List<Integer> expected = rolls.stream().filter(spec::matches).map(MetalRoll::getId).sorted().toList();
+
+        List<Integer> actual;
+        try (Stream<MetalRoll> stream = repository.streamAll(spec, 50)) {
+            actual = stream.map(MetalRoll::getId).toList();
+        }
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    private void assertSameResult(MetalRollSpecification spec) {
+        List<Integer> expected = rolls.stream().filter(spec::matches).map(MetalRoll::getId).sorted().toList();
+        List<Integer> actual = repository.findAll(spec).stream().map(MetalRoll::getId).sorted().toList();
+
+        assertThat(actual).isEqualTo(expected);
+
+        // the SQL rendering used by the bulk removal selects the same rolls
+        List<Object> params = new ArrayList<>();
+        String where = spec.toSql(params);
+        List<Integer> selected = jdbcTemplate.queryForList(
+                "SELECT id FROM metalroll WHERE " + where + " ORDER BY id", Integer.class, params.toArray());
+        assertThat(selected).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,176 @@
+import com.warehouse.datasource.ReplicaRoutingDataSource;
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.repositories.MetalRollRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes the repository through two in-memory databases standing in for a primary and its
+ * replica. The replica holds different rows, so every read shows where it went.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReplicaRoutingDataSourceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    // the lag the stand-in replica reports, or null when it cannot be reached
+    private static final AtomicReference<Duration> replicaLag = new AtomicReference<>(Duration.ZERO);
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+
+        @Bean
+        ReplicaRoutingDataSource routingDataSource() {
+            DataSource primary = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+            DataSource replica = new EmbeddedDatabaseBuilder()
+                    .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+            // the schema of the primary comes from the entities, the replica gets the same table by hand
+            new JdbcTemplate(replica).execute("CREATE TABLE metalroll (" +
+                    "id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "length DOUBLE PRECISION NOT NULL, weight DOUBLE PRECISION NOT NULL, " +
+                    "date_added DATE NOT NULL, date_of_deletion DATE)");
+
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, List.of(replica), r -> {
+                Duration lag = replicaLag.get();
+                if (lag == null) {
+                    throw new SQLException("Connection refused");
+                }
+                return lag;
+            }, Duration.ofSeconds(5));
+            routing.checkReplicas();
+            return routing;
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(ReplicaRoutingDataSource routing) {
+            return new LazyConnectionDataSourceProxy(routing);
+        }
+    }
+
+    @Autowired
+    private MetalRollRepository repository;
+
+    @Autowired
+    private ReplicaRoutingDataSource routing;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate((DataSource) routing.getResolvedDataSources().get("replica-0"));
+        repository.save(new MetalRoll(5.0, 1.0, DAY, null));
+        replica.update("INSERT INTO metalroll (length, weight, date_added) VALUES (99.0, 1.0, ?)", DAY);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+        replica.update("DELETE FROM metalroll");
+        replicaLag.set(Duration.ZERO);
+        routing.checkReplicas();
+    }
+
+    @Test
+    void shouldReadFromReplicaOnlyInReadOnlyTransactions() {
+        assertThat(lengths(repository.findAll())).containsExactly(99.0);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Double> readInReadOnly = readOnly.execute(status -> lengths(repository.findAll()));
+        assertThat(readInReadOnly).containsExactly(99.0);
+
+        // reads inside a write transaction stay on the primary and see its writes
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        List<Double> readInReadWrite = readWrite.execute(status -> {
+            repository.save(new MetalRoll(6.0, 1.0, DAY, null));
+            return lengths(repository.findAll());
+        });
+        assertThat(readInReadWrite).containsExactlyInAnyOrder(5.0, 6.0);
+    }
+
+    @Test
+    void shouldRouteDeclaredQueriesByTheSurroundingTransaction() {
+        // unlike the inherited finders, a declared query opens no transaction and so uses the primary
+        assertThat(lengths(repository.findActiveInPeriod(DAY, DAY))).containsExactly(5.0);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Double> readInReadOnly = readOnly.execute(status -> lengths(repository.findActiveInPeriod(DAY, DAY)));
+        assertThat(readInReadOnly).containsExactly(99.0);
+    }
+
+    @Test
+    void shouldReadFromPrimaryInReadOnlyTransactionsRunOnPrimary() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<Double> read = ReplicaRoutingDataSource.onPrimary(
+                () -> readOnly.execute(status -> lengths(repository.findActiveInPeriod(DAY, DAY))));
+        assertThat(read).containsExactly(5.0);
+
+        // the thread goes back to the replica afterwards
+        assertThat(lengths(repository.findAll())).containsExactly(99.0);
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhileReplicaLagsBehind() {
+        replicaLag.set(Duration.ofSeconds(30));
+        routing.checkReplicas();
+
+        assertThat(routing.getUsableReplicas()).isEmpty();
+        assertThat(lengths(repository.findAll())).containsExactly(5.0);
+
+        replicaLag.set(Duration.ofSeconds(1));
+        routing.checkReplicas();
+
+        assertThat(lengths(repository.findAll())).containsExactly(99.0);
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhenReplicaCannotBeChecked() {
+        replicaLag.set(null);
+        routing.checkReplicas();
+
+        assertThat(lengths(repository.findAll())).containsExactly(5.0);
+    }
+
+    private static List<Double> lengths(List<MetalRoll> rolls) {
+        return rolls.stream().map(MetalRoll::getLength).toList();
+    }
+}
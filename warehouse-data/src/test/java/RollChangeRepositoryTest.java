@@ -0,0 +1,80 @@
+import com.warehouse.entities.MetalRoll;
+import com.warehouse.entities.RollChange;
+import com.warehouse.entities.RollChangeType;
+import com.warehouse.repositories.MetalRollRepository;
+import com.warehouse.repositories.RollChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Appends to the change log with the PostgreSQL statements of the custom repository. Needs Docker.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class RollChangeRepositoryTest {
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = MetalRoll.class)
+    @EnableJpaRepositories(basePackageClasses = MetalRollRepository.class)
+    static class Config {
+    }
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer postgres = new PostgreSQLContainer("postgres:17-alpine");
+
+    @Autowired
+    private MetalRollRepository rollRepository;
+
+    @Autowired
+    private RollChangeRepository changeRepository;
+
+    @Test
+    void shouldAppendSnapshotsOfRollsInSequence() {
+        LocalDate day = LocalDate.of(2026, 3, 10);
+        List<MetalRoll> rolls = rollRepository.insertAll(new ArrayList<>(List.of(
+                new MetalRoll(5.0, 1.5, day, null),
+                new MetalRoll(7.0, 2.5, day, null))));
+        int first = rolls.get(0).getId();
+        int second = rolls.get(1).getId();
+        changeRepository.appendSnapshots(RollChangeType.ADDED, List.of(second, first));
+
+        // a change still held by the persistence context is copied as well
+        MetalRoll removed = rollRepository.findById(first).orElseThrow();
+        removed.setDateOfDeletion(day.plusDays(2));
+        changeRepository.appendSnapshots(RollChangeType.REMOVED, List.of(first));
+
+        List<RollChange> changes = changeRepository.findBySeqGreaterThanOrderBySeq(0, Limit.of(10));
+        assertThat(changes).extracting(RollChange::getType)
+                .containsExactly(RollChangeType.ADDED, RollChangeType.ADDED, RollChangeType.REMOVED);
+        assertThat(changes).extracting(RollChange::getRollId).containsExactly(first, second, first);
+        assertThat(changes.get(0).getDateOfDeletion()).isNull();
+        assertThat(changes.get(2).getDateOfDeletion()).isEqualTo(day.plusDays(2));
+        assertThat(changes.get(2).getWeight()).isEqualTo(1.5);
+
+        List<RollChange> rest = changeRepository.findBySeqGreaterThanOrderBySeq(changes.get(0).getSeq(), Limit.of(1));
+        assertThat(rest).extracting(RollChange::getRollId).containsExactly(second);
+    }
+}
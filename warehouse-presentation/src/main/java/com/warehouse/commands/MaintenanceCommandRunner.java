@@ -0,0 +1,78 @@
+package com.warehouse.commands;
+
+import com.warehouse.DTO.InventoryCheckDTO;
+import com.warehouse.services.DailyInventoryService;
+import com.warehouse.services.RollArchiveService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Maintenance commands run instead of serving requests, e.g.
+ * {@code java -jar metalwh.jar --spring.main.web-application-type=none --rebuild-inventory}.
+ * Without a command, an empty daily inventory is backfilled from the roll table on startup.
+ */
+@Component
+public class MaintenanceCommandRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MaintenanceCommandRunner.class);
+
+    private final DailyInventoryService inventoryService;
+
+    private final RollArchiveService archiveService;
+
+    private final ConfigurableApplicationContext context;
+
+    public MaintenanceCommandRunner(DailyInventoryService inventoryService, RollArchiveService archiveService,
+                                    ConfigurableApplicationContext context) {
+        this.inventoryService = inventoryService;
+        this.archiveService = archiveService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (args.containsOption("rebuild-inventory")) {
+            long days = inventoryService.rebuild();
+            log.info("Daily inventory rebuilt: {} days", days);
+            exit(0);
+        } else if (args.containsOption("check-inventory")) {
+            InventoryCheckDTO result = inventoryService.check();
+            log.info("Daily inventory checked: {} days, {} mismatched, first mismatch {}",
+                    result.getCheckedDays(), result.getMismatchedDays(), result.getFirstMismatch());
+            exit(result.isConsistent() ? 0 : 1);
+        } else if (args.containsOption("export-rolls")) {
+            Path file = fileOption(args, "export-rolls");
+            long rolls = archiveService.exportRolls(file);
+            log.info("Exported {} rolls to {}", rolls, file);
+            exit(0);
+        } else if (args.containsOption("import-rolls")) {
+            Path file = fileOption(args, "import-rolls");
+            long rolls = archiveService.importRolls(file);
+            log.info("Imported {} rolls from {}", rolls, file);
+            exit(0);
+        } else if (inventoryService.rebuildIfEmpty()) {
+            log.info("Daily inventory was empty and has been backfilled from the roll table");
+        }
+    }
+
+    private static Path fileOption(ApplicationArguments args, String name) {
+        List<String> values = args.getOptionValues(name);
+        if (values.size() != 1 || values.get(0).isBlank()) {
+            throw new IllegalArgumentException("--" + name + " needs one file, e.g. --" + name + "=rolls.bin");
+        }
+        return Path.of(values.get(0));
+    }
+
+    private void exit(int code) {
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
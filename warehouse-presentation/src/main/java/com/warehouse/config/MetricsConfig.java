@@ -0,0 +1,32 @@
+package com.warehouse.config;
+
+import com.warehouse.DTO.FilterDTO;
+import com.warehouse.metrics.RollMetrics;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+@Configuration
+public class MetricsConfig {
+
+    // @Timed service methods get the usual class and method tags plus the shape of their filter.
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> tags = pjp -> Tags.of(
+                "class", pjp.getStaticPart().getSignature().getDeclaringTypeName(),
+                "method", pjp.getStaticPart().getSignature().getName(),
+                "filter", Arrays.stream(pjp.getArgs())
+                        .filter(FilterDTO.class::isInstance)
+                        .map(arg -> RollMetrics.filterShape((FilterDTO) arg))
+                        .findFirst()
+                        .orElse(RollMetrics.NO_FILTER));
+        return new TimedAspect(registry, tags);
+    }
+}
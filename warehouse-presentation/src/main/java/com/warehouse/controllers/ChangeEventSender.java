@@ -0,0 +1,125 @@
+package com.warehouse.controllers;
+
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.changes.RollChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Sends the changes of one event stream from a queue drained on the task executor, so a slow
+ * client never holds up the change feed's thread and the other streams behind it. Once
+ * {@code capacity} changes are waiting the subscription is paused, and it is resumed when the
+ * queue has been sent, so the queue holds at most {@code capacity} plus one batch.
+ */
+final class ChangeEventSender implements Consumer<List<RollChangeDTO>> {
+
+    private final SseEmitter emitter;
+
+    private final Executor executor;
+
+    private final int capacity;
+
+    private final Queue<RollChangeDTO> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    private volatile RollChangeFeed.Subscription subscription;
+
+    private volatile boolean paused;
+
+    private volatile boolean failed;
+
+    ChangeEventSender(SseEmitter emitter, Executor executor, int capacity) {
+        this.emitter = emitter;
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    /** The feed may deliver the first batch before {@code subscribe} has returned the subscription. */
+    void attach(RollChangeFeed.Subscription subscription) {
+        this.subscription = subscription;
+        if (failed) {
+            subscription.cancel();
+        } else if (queued.get() >= capacity) {
+            pause();
+        }
+    }
+
+    @Override
+    public void accept(List<RollChangeDTO> changes) {
+        if (failed) {
+            return;
+        }
+        queue.addAll(changes);
+        if (queued.addAndGet(changes.size()) >= capacity) {
+            pause();
+        }
+        scheduleSend();
+    }
+
+    private void pause() {
+        RollChangeFeed.Subscription current = subscription;
+        if (current != null) {
+            paused = true;
+            current.pause();
+        }
+    }
+
+    private void scheduleSend() {
+        if (sending.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void send() {
+        try {
+            RollChangeDTO change;
+            while (!failed && (change = queue.poll()) != null) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.getSeq()))
+                        .name(change.getType().name())
+                        .data(change, MediaType.APPLICATION_JSON));
+                queued.decrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            // the client is gone or the emitter has timed out
+            fail(e);
+            return;
+        }
+        if (paused) {
+            paused = false;
+            subscription.resume();
+        }
+        sending.set(false);
+        // a batch queued after the loop found the queue empty could not schedule a send
+        if (!queue.isEmpty()) {
+            scheduleSend();
+        }
+    }
+
+    private void fail(Exception e) {
+        failed = true;
+        queue.clear();
+        RollChangeFeed.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        emitter.completeWithError(e);
+    }
+}
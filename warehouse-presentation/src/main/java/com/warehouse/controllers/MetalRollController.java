@@ -1,33 +1,102 @@
 package com.warehouse.controllers;
 
+import com.warehouse.DTO.BucketSize;
 import com.warehouse.DTO.FilterDTO;
+import com.warehouse.DTO.IngestTicketDTO;
 import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.DTO.NewRollDTO;
+import com.warehouse.DTO.RemovalResultDTO;
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.DTO.RollPageDTO;
+import com.warehouse.DTO.RollPercentilesDTO;
 import com.warehouse.DTO.RollStatisticsDTO;
+import com.warehouse.DTO.StatisticsCacheStatsDTO;
+import com.warehouse.DTO.StockBucketDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.ingest.IngestAcknowledgement;
+import com.warehouse.ingest.IngestTicket;
+import com.warehouse.ingest.RollIngestQueue;
 import com.warehouse.requests.CreateRollRequest;
 import com.warehouse.services.MetalRollService;
 import com.warehouse.services.MetalRollServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/rolls")
 public class MetalRollController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // after it the client reconnects and resumes from the Last-Event-ID header
+    private static final long CHANGES_STREAM_TIMEOUT_MS = Duration.ofMinutes(10).toMillis();
+
+    // changes waiting to be sent to one stream before its subscription is paused
+    private static final int CHANGES_STREAM_BUFFER = 4 * RollChangeFeed.MAX_BATCH_SIZE;
+
     private final MetalRollService rollService;
 
-    public MetalRollController(MetalRollServiceImpl rollService) {
+    private final JsonMapper jsonMapper;
+
+    private final RollIngestQueue ingestQueue;
+
+    private final TaskExecutor taskExecutor;
+
+    public MetalRollController(MetalRollServiceImpl rollService, JsonMapper jsonMapper, RollIngestQueue ingestQueue,
+                               TaskExecutor taskExecutor) {
         this.rollService = rollService;
+        this.jsonMapper = jsonMapper;
+        this.ingestQueue = ingestQueue;
+        this.taskExecutor = taskExecutor;
     }
 
-    @Operation(summary = "Добавление нового рулона метала")
+    @Operation(summary = "Добавление нового рулона метала (при включённой очереди — пакетная запись, ответ 201 или 202)")
     @PostMapping
-    public ResponseEntity<MetalRollDTO> addRoll(@RequestBody CreateRollRequest request) {
-        MetalRollDTO saved =  rollService.addMetalRoll(request.getLength(), request.getWeight());
+    public ResponseEntity<?> addRoll(@RequestBody CreateRollRequest request) {
+        if (!ingestQueue.isEnabled()) {
+            MetalRollDTO saved =  rollService.addMetalRoll(request.getLength(), request.getWeight());
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        }
+
+        IngestTicket ticket = ingestQueue.submit(request.getLength(), request.getWeight());
+        if (ingestQueue.getAcknowledgement() == IngestAcknowledgement.ACCEPTED) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/rolls/ingest/" + ticket.getTrackingId()))
+                    .body(ticket.toDTO());
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(ticket.await());
+    }
+
+    @Operation(summary = "Состояние рулона, принятого в очередь записи, по идентификатору отслеживания")
+    @GetMapping("/ingest/{trackingId}")
+    public ResponseEntity<IngestTicketDTO> getIngestTicket(@PathVariable String trackingId) {
+        return ResponseEntity.ok(ingestQueue.getTicket(trackingId));
+    }
+
+    @Operation(summary = "Пакетное добавление рулонов метала")
+    @PostMapping("/batch")
+    public ResponseEntity<List<MetalRollDTO>> addRolls(@RequestBody List<CreateRollRequest> requests) {
+        List<NewRollDTO> rolls = requests.stream()
+                .map(r -> new NewRollDTO(r.getLength(), r.getWeight()))
+                .toList();
+        List<MetalRollDTO> saved = rollService.addMetalRolls(rolls);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
@@ -38,17 +107,124 @@ public class MetalRollController {
         return ResponseEntity.ok(removed);
     }
 
-    @Operation(summary = "Получение рулонов метала с фильтрами")
+    @Operation(summary = "Пакетное удаление рулонов метала по списку id")
+    @PostMapping("/batch/remove")
+    public ResponseEntity<List<RemovalResultDTO>> deleteRolls(@RequestBody List<Integer> ids) {
+        List<RemovalResultDTO> results = rollService.removeMetalRolls(ids);
+        return ResponseEntity.ok(results);
+    }
+
+    @Operation(summary = "Удаление всех рулонов на складе, подходящих под фильтры")
+    @DeleteMapping
+    public ResponseEntity<List<RemovalResultDTO>> deleteMatchingRolls(FilterDTO filter) {
+        List<RemovalResultDTO> results = rollService.removeMatchingMetalRolls(filter);
+        return ResponseEntity.ok(results);
+    }
+
+    @Operation(summary = "Получение рулонов метала с фильтрами (JSON, либо CBOR или Smile по заголовку Accept)")
     @GetMapping
-    public ResponseEntity<List<MetalRollDTO>> getRolls(FilterDTO filter) {
+    public ResponseEntity<?> getRolls(FilterDTO filter,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Optional<RollBinaryFormat> binary = RollBinaryFormat.negotiate(accept);
+        if (binary.isPresent()) {
+            rollService.validateFilter(filter);
+            RollBinaryFormat format = binary.get();
+            StreamingResponseBody body = out ->
+                    format.write(out, consumer -> rollService.streamFilteredMetalRolls(filter, consumer));
+            return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+        }
+
         List<MetalRollDTO> rolls = rollService.getFilteredMetalRolls(filter);
         return ResponseEntity.ok(rolls);
     }
 
+    @Operation(summary = "Получение рулонов метала, находившихся на складе в указанный день")
+    @GetMapping("/active")
+    public ResponseEntity<List<MetalRollDTO>> getActiveRolls(@RequestParam LocalDate date) {
+        List<MetalRollDTO> rolls = rollService.getActiveMetalRolls(date);
+        return ResponseEntity.ok(rolls);
+    }
+
+    @Operation(summary = "Постраничное получение рулонов метала с фильтрами (курсор по id)")
+    @GetMapping("/page")
+    public ResponseEntity<RollPageDTO> getRollsPage(FilterDTO filter,
+                                                    @RequestParam(required = false) Integer after,
+                                                    @RequestParam(defaultValue = "100") int limit) {
+        RollPageDTO page = rollService.getMetalRollsPage(filter, after, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Потоковая выгрузка рулонов метала с фильтрами в формате NDJSON")
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamRolls(FilterDTO filter) {
+        rollService.validateFilter(filter);
+        StreamingResponseBody body = out -> {
+            try (SequenceWriter writer = jsonMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                rollService.streamFilteredMetalRolls(filter, writer::write);
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @Operation(summary = "Изменения рулонов после указанного номера; ждёт новых до wait секунд (long polling)")
+    @GetMapping("/changes")
+    public DeferredResult<List<RollChangeDTO>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                          @RequestParam(defaultValue = "100") int limit,
+                                                          @RequestParam(defaultValue = "30") int wait) {
+        CompletableFuture<List<RollChangeDTO>> changes = rollService.awaitRollChanges(since, limit, Duration.ofSeconds(wait));
+        // the feed's own timeout answers first; this one only guards against a lost wakeup
+        DeferredResult<List<RollChangeDTO>> result = new DeferredResult<>(Duration.ofSeconds(wait + 5L).toMillis(), List.of());
+        result.onCompletion(() -> changes.cancel(false));
+        changes.whenComplete((list, e) -> {
+            if (e != null) {
+                result.setErrorResult(e);
+            } else {
+                result.setResult(list);
+            }
+        });
+        return result;
+    }
+
+    @Operation(summary = "Поток изменений рулонов в формате Server-Sent Events")
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(CHANGES_STREAM_TIMEOUT_MS);
+        ChangeEventSender sender = new ChangeEventSender(emitter, taskExecutor, CHANGES_STREAM_BUFFER);
+        RollChangeFeed.Subscription subscription = rollService.subscribeToRollChanges(
+                lastEventId != null ? lastEventId : since, sender);
+        sender.attach(subscription);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
     @Operation(summary = "Получение статистики по рулонам метала за период")
     @GetMapping("/stats")
     public ResponseEntity<RollStatisticsDTO> getStats(@RequestParam LocalDate start, @RequestParam LocalDate end) {
         RollStatisticsDTO stats = rollService.getStatistics(start, end);
         return ResponseEntity.ok(stats);
     }
+
+    @Operation(summary = "Приближённые перцентили длины, веса и срока хранения рулонов за период")
+    @GetMapping("/stats/percentiles")
+    public ResponseEntity<RollPercentilesDTO> getPercentiles(@RequestParam LocalDate start, @RequestParam LocalDate end) {
+        RollPercentilesDTO percentiles = rollService.getPercentiles(start, end);
+        return ResponseEntity.ok(percentiles);
+    }
+
+    @Operation(summary = "Остаток на складе и движение рулонов за период по дням, неделям или месяцам")
+    @GetMapping("/stats/series")
+    public ResponseEntity<List<StockBucketDTO>> getStatsSeries(@RequestParam LocalDate start,
+                                                               @RequestParam LocalDate end,
+                                                               @RequestParam(defaultValue = "DAY") BucketSize bucket) {
+        List<StockBucketDTO> series = rollService.getStockSeries(start, end, bucket);
+        return ResponseEntity.ok(series);
+    }
+
+    @Operation(summary = "Счётчики кэша статистики")
+    @GetMapping("/stats/cache")
+    public ResponseEntity<StatisticsCacheStatsDTO> getStatsCache() {
+        return ResponseEntity.ok(rollService.getStatisticsCacheStats());
+    }
 }
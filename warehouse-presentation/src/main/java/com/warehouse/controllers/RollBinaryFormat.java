@@ -0,0 +1,83 @@
+package com.warehouse.controllers;
+
+import com.warehouse.DTO.MetalRollDTO;
+import org.springframework.http.MediaType;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Binary encodings of a roll listing. The listing is an array with one
+ * {@code [id, length, weight, addedEpochDay, removedEpochDay or null]} array per roll, so
+ * there are no field names and no date strings.
+ */
+enum RollBinaryFormat {
+
+    CBOR(MediaType.parseMediaType("application/cbor"), new CBORMapper()),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), new SmileMapper());
+
+    private final MediaType mediaType;
+
+    private final ObjectMapper mapper;
+
+    RollBinaryFormat(MediaType mediaType, ObjectMapper mapper) {
+        this.mediaType = mediaType;
+        this.mapper = mapper;
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The binary format the client prefers to JSON, if any. Accepted types are tried by
+     * quality; {@code *}{@code /*} and other types that include JSON mean JSON.
+     */
+    static Optional<RollBinaryFormat> negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return Optional.empty();
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return Optional.empty();
+            }
+            for (RollBinaryFormat format : values()) {
+                if (type.includes(format.mediaType)) {
+                    return Optional.of(format);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /** Writes the rolls that {@code source} passes to its consumer, as they come. */
+    void write(OutputStream out, Consumer<Consumer<MetalRollDTO>> source) {
+        try (JsonGenerator generator = mapper.createGenerator(out)) {
+            generator.writeStartArray();
+            source.accept(roll -> {
+                generator.writeStartArray();
+                generator.writeNumber(roll.getId());
+                generator.writeNumber(roll.getLength());
+                generator.writeNumber(roll.getWeight());
+                generator.writeNumber(roll.getDateAdded().toEpochDay());
+                if (roll.getDateOfDeletion() == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(roll.getDateOfDeletion().toEpochDay());
+                }
+                generator.writeEndArray();
+            });
+            generator.writeEndArray();
+        }
+    }
+}
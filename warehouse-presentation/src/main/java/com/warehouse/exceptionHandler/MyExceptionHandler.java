@@ -1,7 +1,11 @@
 package com.warehouse.exceptionHandler;
 
+import com.warehouse.exceptions.IngestQueueFullException;
+import com.warehouse.exceptions.IngestTimeoutException;
 import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.exceptions.RollAlreadyRemovedException;
 import com.warehouse.exceptions.RollNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,12 +20,31 @@ public class MyExceptionHandler {
                 .body(new ErrorResponse("ROLL_NOT_FOUND", e.getMessage()));
     }
 
+    @ExceptionHandler(RollAlreadyRemovedException.class)
+    public ResponseEntity<ErrorResponse> handleAlreadyRemoved(RollAlreadyRemovedException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse("ROLL_ALREADY_REMOVED", e.getMessage()));
+    }
+
     @ExceptionHandler(InvalidRollDataException.class)
     public ResponseEntity<ErrorResponse> handleInvalidData(InvalidRollDataException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(new ErrorResponse("INVALID_DATA", e.getMessage()));
     }
 
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIngestQueueFull(IngestQueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse("INGEST_QUEUE_FULL", e.getMessage()));
+    }
+
+    @ExceptionHandler(IngestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleIngestTimeout(IngestTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse("INGEST_TIMEOUT", e.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleUnexpected(Exception e) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
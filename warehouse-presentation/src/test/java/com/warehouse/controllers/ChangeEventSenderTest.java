@@ -0,0 +1,156 @@
+package com.warehouse.controllers;
+
+import com.warehouse.DTO.RollChangeDTO;
+import com.warehouse.changes.RollChangeFeed;
+import com.warehouse.entities.RollChange;
+import com.warehouse.entities.RollChangeType;
+import com.warehouse.repositories.RollChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ChangeEventSenderTest {
+
+    private final List<RollChange> log = new CopyOnWriteArrayList<>();
+
+    private final SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("sse-");
+
+    private RollChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        RollChangeRepository repository = mock(RollChangeRepository.class);
+        when(repository.findBySeqGreaterThanOrderBySeq(anyLong(), any(Limit.class))).thenAnswer(inv -> {
+            long since = inv.getArgument(0);
+            Limit limit = inv.getArgument(1);
+            return log.stream().filter(c -> c.getSeq() > since).limit(limit.max()).toList();
+        });
+        feed = new RollChangeFeed(repository, Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.destroy();
+    }
+
+    @Test
+    void shouldNotHoldUpOtherSubscribersWhileAClientIsSlow() throws Exception {
+        append(3);
+        SlowEmitter slow = new SlowEmitter();
+        ChangeEventSender sender = new ChangeEventSender(slow, executor, 100);
+        sender.attach(feed.subscribe(0, 1, sender));
+        BlockingQueue<List<RollChangeDTO>> fast = new LinkedBlockingQueue<>();
+        feed.subscribe(0, 10, fast::add);
+
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fast.poll(5, TimeUnit.SECONDS)).hasSize(3);
+
+        slow.release.countDown();
+        assertThat(slow.awaitSent(3)).containsExactly("1", "2", "3");
+    }
+
+    @Test
+    void shouldPauseTheSubscriptionUntilQueuedChangesAreSent() throws Exception {
+        append(10);
+        SlowEmitter slow = new SlowEmitter();
+        ChangeEventSender sender = new ChangeEventSender(slow, executor, 4);
+        AtomicInteger delivered = new AtomicInteger();
+        sender.attach(feed.subscribe(0, 2, batch -> {
+            delivered.addAndGet(batch.size());
+            sender.accept(batch);
+        }));
+
+        assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        // the batch that reached the capacity is queued, later ones stay in the log
+        assertThat(delivered.get()).isEqualTo(4);
+        append(5);
+
+        slow.release.countDown();
+        assertThat(slow.awaitSent(15)).isEqualTo(IntStream.rangeClosed(1, 15).mapToObj(Integer::toString).toList());
+    }
+
+    @Test
+    void shouldCancelTheSubscriptionWhenTheClientIsGone() throws Exception {
+        append(1);
+        AtomicInteger attempts = new AtomicInteger();
+        SseEmitter gone = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                attempts.incrementAndGet();
+                throw new IOException("Broken pipe");
+            }
+        };
+        ChangeEventSender sender = new ChangeEventSender(gone, executor, 100);
+        sender.attach(feed.subscribe(0, 10, sender));
+        Thread.sleep(200);
+        assertThat(attempts.get()).isEqualTo(1);
+
+        append(1);
+        feed.rollsAdded(List.of(2));
+        Thread.sleep(200);
+        assertThat(attempts.get()).isEqualTo(1);
+    }
+
+    private void append(int count) {
+        for (int i = 0; i < count; i++) {
+            RollChange change = new RollChange(RollChangeType.ADDED, log.size() + 1, 10.0, 2.0,
+                    LocalDate.of(2026, 3, 1), null);
+            change.setSeq(log.size() + 1);
+            log.add(change);
+        }
+    }
+
+    /** Blocks the first send until released, as a client that stopped reading would. */
+    private static final class SlowEmitter extends SseEmitter {
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            String event = builder.build().iterator().next().getData().toString();
+            sent.add(event.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3));
+        }
+
+        private List<String> awaitSent(int count) throws InterruptedException {
+            List<String> ids = new CopyOnWriteArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String id = sent.poll(5, TimeUnit.SECONDS);
+                assertThat(id).isNotNull();
+                ids.add(id);
+            }
+            return ids;
+        }
+    }
+}
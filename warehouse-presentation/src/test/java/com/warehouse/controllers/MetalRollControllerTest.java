@@ -0,0 +1,97 @@
+package com.warehouse.controllers;
+
+import com.warehouse.DTO.FilterDTO;
+import com.warehouse.DTO.MetalRollDTO;
+import com.warehouse.exceptions.InvalidRollDataException;
+import com.warehouse.ingest.RollIngestQueue;
+import com.warehouse.services.MetalRollServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MetalRollControllerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private MetalRollServiceImpl rollService;
+
+    @Mock
+    private RollIngestQueue ingestQueue;
+
+    private MetalRollController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new MetalRollController(rollService, JsonMapper.builder().build(), ingestQueue,
+                new SyncTaskExecutor());
+        doCallRealMethod().when(rollService).validateFilter(any());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RollBinaryFormat.class)
+    void shouldListTheSameRollsInBinaryAsInJson(RollBinaryFormat format) throws IOException {
+        List<MetalRollDTO> rolls = List.of(
+                new MetalRollDTO(3, 5.5, 1.25, DAY, null),
+                new MetalRollDTO(4, 8.0, 2.5, DAY.minusDays(2), DAY),
+                new MetalRollDTO(9, 12.0, 3.75, DAY.minusDays(30), null));
+        FilterDTO filter = new FilterDTO();
+        filter.setWeightFrom(1.0);
+        filter.setWeightTo(4.0);
+        when(rollService.getFilteredMetalRolls(filter)).thenReturn(rolls);
+        doAnswer(inv -> {
+            Consumer<MetalRollDTO> consumer = inv.getArgument(1);
+            rolls.forEach(consumer);
+            return null;
+        }).when(rollService).streamFilteredMetalRolls(any(), any());
+
+        ResponseEntity<?> json = controller.getRolls(filter, "application/json");
+        ResponseEntity<?> binary = controller.getRolls(filter, format.mediaType().toString());
+
+        assertThat(binary.getHeaders().getContentType()).isEqualTo(format.mediaType());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingResponseBody) binary.getBody()).writeTo(out);
+        List<MetalRollDTO> decoded = new ArrayList<>();
+        for (JsonNode row : RollBinaryFormatTest.decode(format, out.toByteArray())) {
+            decoded.add(RollBinaryFormatTest.toRoll(row));
+        }
+        assertThat(decoded).isEqualTo(json.getBody());
+    }
+
+    @ParameterizedTest
+    @EnumSource(RollBinaryFormat.class)
+    void shouldRejectInvalidFilterBeforeTheBinaryBody(RollBinaryFormat format) {
+        FilterDTO filter = new FilterDTO();
+        filter.setWeightFrom(-1.0);
+        filter.setWeightTo(4.0);
+
+        assertThatThrownBy(() -> controller.getRolls(filter, format.mediaType().toString()))
+                .isInstanceOf(InvalidRollDataException.class);
+        verify(rollService, never()).streamFilteredMetalRolls(any(), any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.warehouse.controllers;
+
+import com.warehouse.DTO.MetalRollDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RollBinaryFormatTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Test
+    void shouldAnswerJsonWithoutAcceptHeader() {
+        assertThat(RollBinaryFormat.negotiate(null)).isEmpty();
+        assertThat(RollBinaryFormat.negotiate(" ")).isEmpty();
+    }
+
+    @Test
+    void shouldPickTheRequestedBinaryFormat() {
+        assertThat(RollBinaryFormat.negotiate("application/cbor")).contains(RollBinaryFormat.CBOR);
+        assertThat(RollBinaryFormat.negotiate("application/x-jackson-smile")).contains(RollBinaryFormat.SMILE);
+        assertThat(RollBinaryFormat.negotiate("text/html, application/cbor;q=0.1")).contains(RollBinaryFormat.CBOR);
+    }
+
+    @Test
+    void shouldAnswerJsonToTypesIncludingJson() {
+        assertThat(RollBinaryFormat.negotiate("application/json")).isEmpty();
+        assertThat(RollBinaryFormat.negotiate("*/*")).isEmpty();
+        assertThat(RollBinaryFormat.negotiate("application/*")).isEmpty();
+        assertThat(RollBinaryFormat.negotiate("text/html")).isEmpty();
+    }
+
+    @Test
+    void shouldFollowQualityValues() {
+        assertThat(RollBinaryFormat.negotiate("application/json;q=0.5, application/cbor")).contains(RollBinaryFormat.CBOR);
+        assertThat(RollBinaryFormat.negotiate("application/cbor;q=0.5, application/json")).isEmpty();
+        assertThat(RollBinaryFormat.negotiate("application/cbor;q=0.8, application/x-jackson-smile;q=0.9"))
+                .contains(RollBinaryFormat.SMILE);
+        // a browser's trailing */* does not outrank an explicit binary type
+        assertThat(RollBinaryFormat.negotiate("application/x-jackson-smile, */*;q=0.8")).contains(RollBinaryFormat.SMILE);
+    }
+
+    @ParameterizedTest
+    @EnumSource(RollBinaryFormat.class)
+    void shouldEncodeEachRollAsAnArrayOfItsColumns(RollBinaryFormat format) {
+        List<MetalRollDTO> rolls = List.of(
+                new MetalRollDTO(1, 5.5, 1.25, DAY, null),
+                new MetalRollDTO(7, 12.0, 3.75, DAY.minusDays(30), DAY));
+
+        JsonNode decoded = decode(format, write(format, rolls));
+
+        assertThat(decoded.size()).isEqualTo(rolls.size());
+        for (int i = 0; i < rolls.size(); i++) {
+            assertThat(toRoll(decoded.get(i))).isEqualTo(rolls.get(i));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(RollBinaryFormat.class)
+    void shouldEncodeAnEmptyListing(RollBinaryFormat format) {
+        JsonNode decoded = decode(format, write(format, List.of()));
+
+        assertThat(decoded.isArray()).isTrue();
+        assertThat(decoded.size()).isZero();
+    }
+
+    static byte[] write(RollBinaryFormat format, List<MetalRollDTO> rolls) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.write(out, rolls::forEach);
+        return out.toByteArray();
+    }
+
+    static JsonNode decode(RollBinaryFormat format, byte[] bytes) {
+        ObjectMapper mapper = format == RollBinaryFormat.CBOR ? new CBORMapper() : new SmileMapper();
+        return mapper.readTree(bytes);
+    }
+
+    static MetalRollDTO toRoll(JsonNode row) {
+        assertThat(row.size()).isEqualTo(5);
+        return new MetalRollDTO(row.get(0).asInt(), row.get(1).asDouble(), row.get(2).asDouble(),
+                LocalDate.ofEpochDay(row.get(3).asLong()),
+                row.get(4).isNull() ? null : LocalDate.ofEpochDay(row.get(4).asLong()));
+    }
+}